@@ -0,0 +1,131 @@
+import bagel.util.Point;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * AllocationBudgetCheck plays a steady-state wave with a headless GameSimulation and measures the bytes each tick allocates
+ * it throws (failing the build when run by the verify phase of the root build) if any measured tick allocates more than the budget
+ *
+ * the steady state is a long wave of slicers, superslicers and megaslicers walking most of the path before they reach the towers,
+ * so there are always around a hundred live slicers of every type for the towers to target, hit and split
+ * spawning, moving, targeting, firing, hitting, eliminating and rewarding slicers should then allocate nothing
+ * a slicer that splits creates its children (see Slicer.deductHealth), so the bytes of the splits in a tick are measured and
+ * subtracted from that tick's bytes, everything else a tick allocates counts against the budget
+ *
+ * the warmup is long because the JIT allocates on the game's thread too: the first time a method is queued for C2 compilation,
+ * HotSpot resolves every string constant of its class on the thread that queued it, so the methods called once per tick
+ * (which only get hot after many thousands of ticks) must all be compiled before the measured ticks start
+ *
+ * properties: -Dallocation.budgetBytes (default 0), -Dallocation.warmupTicks (default 40000), -Dallocation.measuredTicks (default 5000),
+ * -Dallocation.minLiveSlicers (default 50, the check throws if a measured tick has fewer live slicers)
+ * it must be run from the project root so the maps in res/levels can be found
+ */
+public class AllocationBudgetCheck {
+
+    //static attributes
+    //the wave: CYCLES repeats of the same mix of slicer types, one spawning every 250ms, long enough that the measured ticks are all in the middle of the wave
+    private static final String CYCLE = "1,spawn,6,slicer,250\n1,spawn,2,superslicer,250\n1,spawn,1,megaslicer,250\n";
+    private static final int CYCLES = 600;
+    //the towers placed before the wave starts (along the last 40% of the first level's path, so the slicers pile up before reaching them)
+    private static final String[] TOWER_TYPES = {"supertank", "tank", "supertank", "supertank", "supertank", "tank", "supertank", "supertank"};
+    private static final Point[] TOWER_POSITIONS = {new Point(320, 467), new Point(370, 587), new Point(470, 467), new Point(520, 588),
+            new Point(676, 515), new Point(685, 369), new Point(678, 243), new Point(870, 340)};
+
+    //main method
+    public static void main(String[] args) throws IOException {
+        long budget = Long.getLong("allocation.budgetBytes", 0L);
+        int warmupTicks = Integer.getInteger("allocation.warmupTicks", 40000);
+        int measuredTicks = Integer.getInteger("allocation.measuredTicks", 5000);
+        int minLive = Integer.getInteger("allocation.minLiveSlicers", 50);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        if(!threads.isThreadAllocatedMemorySupported()){
+            throw new IllegalStateException("this JVM can't measure the memory allocated by a thread");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        StringBuilder waves = new StringBuilder();
+        for(int i = 0; i < CYCLES; i++){
+            waves.append(CYCLE);
+        }
+        GameSimulation simulation = new GameSimulation(BenchmarkHarness.wavesFile(waves.toString()), 1, 0);
+        for(int i = 0; i < TOWER_TYPES.length; i++){
+            Tower tower = Tower.create(TOWER_TYPES[i]);
+            if(!simulation.canPlaceTower(tower, TOWER_POSITIONS[i])){
+                throw new IllegalStateException("can't place a " + TOWER_TYPES[i] + " at " + TOWER_POSITIONS[i]);
+            }
+            simulation.placeTower(tower, TOWER_POSITIONS[i]);
+        }
+        simulation.startWave();
+
+        //the warmup lets the live slicers, ammo lists and spare ammo grow to their steady size and the JIT finish compiling the tick
+        simulation.tick(warmupTicks);
+
+        //the bytes allocated by measuring alone are subtracted from each measurement
+        long overhead = Long.MAX_VALUE;
+        for(int i = 0; i < 100; i++){
+            long before = threads.getThreadAllocatedBytes(thread);
+            overhead = Math.min(overhead, threads.getThreadAllocatedBytes(thread) - before);
+        }
+
+        //the bytes a slicer of each type allocates when it splits (its children and the list holding them)
+        long[] splitBytes = new long[SlicerType.values().length];
+        for(SlicerType type: SlicerType.values()){
+            if(type.getNumChildren() == 0){
+                continue;
+            }
+            splitBytes[type.ordinal()] = Long.MAX_VALUE;
+            for(int i = 0; i < 100; i++){
+                Slicer s = new Slicer(type, 1, 0);
+                long before = threads.getThreadAllocatedBytes(thread);
+                s.deductHealth((int)Math.ceil(type.getHealth()));
+                splitBytes[type.ordinal()] = Math.min(splitBytes[type.ordinal()], threads.getThreadAllocatedBytes(thread) - before - overhead);
+            }
+        }
+
+        long total = 0, worst = 0;
+        int worstTick = -1, overBudget = 0, splits = 0, fewestLive = Integer.MAX_VALUE, mostLive = 0;
+        for(int i = 0; i < measuredTicks; i++){
+            long before = threads.getThreadAllocatedBytes(thread);
+            simulation.tick();
+            long allocated = threads.getThreadAllocatedBytes(thread) - before - overhead;
+
+            //the slicers that split this tick are still in the live slicers (they are removed at the start of the next tick)
+            List<Slicer> live = simulation.getCurrentWaveSlicers();
+            for(int j = 0; j < live.size(); j++){
+                Slicer s = live.get(j);
+                if(s.getHealth() == 0 && !s.getChildren().isEmpty()){
+                    allocated -= splitBytes[s.getTemplate().ordinal()];
+                    splits++;
+                }
+            }
+            fewestLive = Math.min(fewestLive, live.size());
+            mostLive = Math.max(mostLive, live.size());
+
+            total += allocated;
+            if(allocated > worst){
+                worst = allocated;
+                worstTick = warmupTicks + i;
+            }
+            if(allocated > budget){
+                overBudget++;
+            }
+        }
+
+        if(!simulation.isWaveInProgress()){
+            throw new IllegalStateException("the wave ended during the measured ticks, the check must measure a steady state");
+        }
+
+        System.out.printf("%d ticks measured, %d to %d live slicers, %d splits: %.1f bytes/tick on average (besides splits), worst %d bytes (tick %d), budget %d bytes%n",
+                measuredTicks, fewestLive, mostLive, splits, (double)total/measuredTicks, worst, worstTick, budget);
+        if(fewestLive < minLive){
+            throw new IllegalStateException("a measured tick had " + fewestLive + " live slicers, the check must measure at least " + minLive);
+        }
+        if(overBudget > 0){
+            throw new IllegalStateException(overBudget + " of " + measuredTicks + " ticks allocated more than the budget of " + budget + " bytes");
+        }
+    }
+}
@@ -0,0 +1,260 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * BenchmarkHarness is a small JMH-style harness (warmup iterations, measured iterations, average time per operation)
+ * JMH can't generate benchmarks for classes in the default package so the game's benchmarks use this harness instead,
+ * and its results are written in JMH's JSON result format so the usual JMH result viewers can read them
+ */
+public class BenchmarkHarness {
+
+    /**
+     * a benchmark run once per parameter value: setUp builds the inputs for a count, operation is the code being measured
+     */
+    public static abstract class Benchmark {
+        //name: the name of the benchmark (Class.method as JMH would name it)
+        private final String name;
+
+        protected Benchmark(String name){ this.name = name; }
+
+        /**
+         * @param count: the size of the input (number of slicers, towers, points etc.)
+         */
+        protected abstract void setUp(int count) throws Exception;
+
+        /**
+         * @return a value derived from the work done, consumed by the harness so the JIT can't remove the work
+         */
+        protected abstract long operation() throws Exception;
+
+        public String getName(){ return name; }
+    }
+
+    /*
+    warmupIterations, measurementIterations: the number of iterations run before and during measurement
+    iterationMillis: how long each iteration runs for
+    results: the JSON objects of the benchmarks run so far
+    sink: where the values returned by operations are consumed
+     */
+    private final int warmupIterations, measurementIterations;
+    private final long iterationMillis;
+    private final List<String> results = new ArrayList<String>();
+    private volatile long sink;
+
+    /**
+     * @param warmupIterations: the number of iterations run before measurement
+     * @param measurementIterations: the number of measured iterations
+     * @param iterationMillis: how long each iteration runs for
+     */
+    public BenchmarkHarness(int warmupIterations, int measurementIterations, long iterationMillis){
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationMillis = iterationMillis;
+    }
+
+    /**
+     * method to run a benchmark for every count and record its average time per operation
+     * @param benchmark: the benchmark to run
+     * @param counts: the input sizes to run the benchmark with
+     */
+    public void run(Benchmark benchmark, int[] counts) throws Exception {
+        for(int count: counts){
+            benchmark.setUp(count);
+
+            for(int i = 0; i < this.warmupIterations; i++){
+                this.iteration(benchmark);
+            }
+            double[] scores = new double[this.measurementIterations];
+            for(int i = 0; i < this.measurementIterations; i++){
+                scores[i] = this.iteration(benchmark);
+            }
+
+            double mean = 0;
+            for(double s: scores){
+                mean += s;
+            }
+            mean /= scores.length;
+            double variance = 0;
+            for(double s: scores){
+                variance += (s - mean)*(s - mean);
+            }
+            double error = scores.length > 1 ? scoreError(Math.sqrt(variance/(scores.length - 1)), scores.length) : Double.NaN;
+
+            System.out.printf(Locale.ROOT, "%-45s count=%-7d %14.3f +- %10.3f us/op%n", benchmark.getName(), count, mean, error);
+            this.results.add(toJson(benchmark.getName(), count, mean, error, scores));
+        }
+    }
+
+    /**
+     * helper method to run operations for one iteration
+     * @param benchmark: the benchmark being run
+     * @return the average time per operation in microseconds
+     */
+    private double iteration(Benchmark benchmark) throws Exception {
+        long operations = 0, value = 0;
+        long start = System.nanoTime(), end = start + this.iterationMillis*1000000L, now;
+        do{
+            value += benchmark.operation();
+            operations++;
+            now = System.nanoTime();
+        } while(now < end);
+        this.sink += value;
+        return (now - start)/1000.0/operations;
+    }
+
+    /**
+     * helper method to work out JMH's scoreError: the half-width of the 99.9% confidence interval of the mean score
+     * (the 0.9995 quantile of Student's t distribution with n - 1 degrees of freedom times the standard error of the mean)
+     * @param stddev: the sample standard deviation of the scores
+     * @param n: the number of scores (at least 2)
+     */
+    static double scoreError(double stddev, int n){
+        //the quantile is found by bisection: P(T > t) = I(df/(df + t*t); df/2, 1/2)/2 falls as t grows
+        int df = n - 1;
+        double low = 0, high = 1;
+        while(0.5*incompleteBeta(df/(df + high*high), df/2.0, 0.5) > 0.0005){
+            high *= 2;
+        }
+        for(int i = 0; i < 100; i++){
+            double t = (low + high)/2;
+            if(0.5*incompleteBeta(df/(df + t*t), df/2.0, 0.5) > 0.0005){
+                low = t;
+            }
+            else{
+                high = t;
+            }
+        }
+        return (low + high)/2*stddev/Math.sqrt(n);
+    }
+
+    /**
+     * helper method to work out the regularized incomplete beta function I(x; a, b) with its continued fraction
+     */
+    private static double incompleteBeta(double x, double a, double b){
+        if(x <= 0 || x >= 1){
+            return x <= 0 ? 0 : 1;
+        }
+        //the continued fraction converges quickly for x < (a + 1)/(a + b + 2), otherwise the symmetry I(x; a, b) = 1 - I(1 - x; b, a) is used
+        if(x > (a + 1)/(a + b + 2)){
+            return 1 - incompleteBeta(1 - x, b, a);
+        }
+        double front = Math.exp(lnGamma(a + b) - lnGamma(a) - lnGamma(b) + a*Math.log(x) + b*Math.log(1 - x))/a;
+
+        //Lentz's method for the continued fraction
+        double tiny = 1e-300;
+        double c = 1, d = 1 - (a + b)*x/(a + 1);
+        d = 1/(Math.abs(d) < tiny ? tiny : d);
+        double f = d;
+        for(int m = 1; m <= 300; m++){
+            for(int step = 0; step < 2; step++){
+                double numerator = step == 0
+                        ? m*(b - m)*x/((a + 2*m - 1)*(a + 2*m))
+                        : -(a + m)*(a + b + m)*x/((a + 2*m)*(a + 2*m + 1));
+                d = 1 + numerator*d;
+                d = 1/(Math.abs(d) < tiny ? tiny : d);
+                c = 1 + numerator/c;
+                c = Math.abs(c) < tiny ? tiny : c;
+                f *= c*d;
+            }
+            if(Math.abs(c*d - 1) < 1e-15){
+                break;
+            }
+        }
+        return front*f;
+    }
+
+    /**
+     * helper method to work out the log of the gamma function (Lanczos approximation)
+     */
+    private static double lnGamma(double x){
+        double[] coefficients = {76.18009172947146, -86.50532032941677, 24.01409824083091,
+                -1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5};
+        double y = x, tmp = x + 5.5;
+        tmp -= (x + 0.5)*Math.log(tmp);
+        double series = 1.000000000190015;
+        for(double coefficient: coefficients){
+            series += coefficient/++y;
+        }
+        return -tmp + Math.log(2.5066282746310005*series/x);
+    }
+
+    /**
+     * helper method to build the JMH style JSON object of a result
+     */
+    private String toJson(String name, int count, double score, double error, double[] scores){
+        StringBuilder raw = new StringBuilder();
+        for(int i = 0; i < scores.length; i++){
+            raw.append(i == 0 ? "" : ", ").append(String.format(Locale.ROOT, "%.6f", scores[i]));
+        }
+        return String.format(Locale.ROOT,
+                "    {\n" +
+                "        \"benchmark\" : \"%s\",\n" +
+                "        \"mode\" : \"avgt\",\n" +
+                "        \"threads\" : 1,\n" +
+                "        \"forks\" : 1,\n" +
+                "        \"warmupIterations\" : %d,\n" +
+                "        \"warmupTime\" : \"%d ms\",\n" +
+                "        \"measurementIterations\" : %d,\n" +
+                "        \"measurementTime\" : \"%d ms\",\n" +
+                "        \"params\" : {\n" +
+                "            \"count\" : \"%d\"\n" +
+                "        },\n" +
+                "        \"primaryMetric\" : {\n" +
+                "            \"score\" : %.6f,\n" +
+                "            \"scoreError\" : %s,\n" +
+                "            \"scoreUnit\" : \"us/op\",\n" +
+                "            \"rawData\" : [\n" +
+                "                [%s]\n" +
+                "            ]\n" +
+                "        },\n" +
+                "        \"secondaryMetrics\" : {\n" +
+                "        }\n" +
+                "    }",
+                name, this.warmupIterations, this.iterationMillis, this.measurementIterations, this.iterationMillis,
+                count, score, Double.isNaN(error) ? "\"NaN\"" : String.format(Locale.ROOT, "%.6f", error), raw);
+    }
+
+    /**
+     * helper method to write a temporary waves file (deleted when the JVM exits) for the benchmarks and checks to play
+     * @param contents: the lines of the waves file
+     * @return the filename of the waves file
+     * @throws IOException if the file can't be written
+     */
+    public static String wavesFile(String contents) throws IOException {
+        File file = File.createTempFile("waves", ".txt");
+        file.deleteOnExit();
+        Writer writer = new FileWriter(file);
+        try{
+            writer.write(contents);
+        }
+        finally{
+            writer.close();
+        }
+        return file.getPath();
+    }
+
+    /**
+     * method to write the results of every benchmark run so far as a JSON array
+     * @param filename: the file the results are written to
+     * @throws IOException if the file can't be written
+     */
+    public void writeJson(String filename) throws IOException {
+        Writer writer = new FileWriter(filename);
+        try{
+            writer.write("[\n");
+            for(int i = 0; i < this.results.size(); i++){
+                writer.write(this.results.get(i));
+                writer.write(i == this.results.size() - 1 ? "\n" : ",\n");
+            }
+            writer.write("]\n");
+        }
+        finally{
+            writer.close();
+        }
+    }
+}
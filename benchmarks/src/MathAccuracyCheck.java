@@ -0,0 +1,98 @@
+import bagel.util.Point;
+import bagel.util.Rectangle;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * MathAccuracyCheck compares the headings of GameMath's lookup table with the acos formula the game used before the table
+ * (Math.acos of the normalised vector's x component, negated when its y component is negative)
+ * it throws (failing the build when run by the verify phase of the root build) if any heading is further off than the tolerance
+ *
+ * the headings compared are the directions of random vectors at every scale the game uses, every segment of every level's path,
+ * and every tower to slicer direction between a grid of tower positions and the points of the first level's path
+ *
+ * properties: -Dmath.maxErrorRadians (default 1e-6), -Dmath.randomVectors (default 1000000)
+ * it must be run from the project root so the maps in res/levels can be found
+ */
+public class MathAccuracyCheck {
+
+    //static attributes
+    //the game screen used by the GameSimulation (the screen without the buy panel and status panel)
+    private static final Rectangle GAME_SCREEN = new Rectangle(0, 100, GameSimulation.WIDTH, GameSimulation.HEIGHT - 125);
+    //the levels that have maps in res/levels
+    private static final int[] LEVELS = {1, 2};
+
+    /*
+    worst: the largest difference found so far between a heading and the acos formula's heading
+    worstX, worstY: the vector the worst difference was found for
+    compared: the number of headings compared
+     */
+    private static double worst = 0, worstX, worstY;
+    private static long compared = 0;
+
+    //main method
+    public static void main(String[] args){
+        double tolerance = Double.parseDouble(System.getProperty("math.maxErrorRadians", "1e-6"));
+        int randomVectors = Integer.getInteger("math.randomVectors", 1000000);
+
+        //random vectors from sub-pixel steps up to the size of the screen, in every direction
+        Random random = new Random(0);
+        for(int i = 0; i < randomVectors; i++){
+            double scale = Math.pow(10, -3 + 7*random.nextDouble());
+            compare(scale*(2*random.nextDouble() - 1), scale*(2*random.nextDouble() - 1));
+        }
+
+        //the vectors along the axes and diagonals, where the octants of the table meet
+        for(int i = -1; i <= 1; i++){
+            for(int j = -1; j <= 1; j++){
+                if(i != 0 || j != 0){
+                    compare(i, j);
+                }
+            }
+        }
+
+        //the segments of every level's path
+        for(int level: LEVELS){
+            List<Point> polyline = new LevelMap("res/levels/" + level + ".tmx").getAllPolylines().get(0);
+            for(int i = 0; i < polyline.size() - 1; i++){
+                compare(polyline.get(i + 1).x - polyline.get(i).x, polyline.get(i + 1).y - polyline.get(i).y);
+            }
+        }
+
+        //the direction from towers on a grid over the game screen to every 16th point of the first level's path
+        Path path = new Path(new LevelMap("res/levels/1.tmx").getAllPolylines().get(0), GAME_SCREEN);
+        for(int x = 32; x < GameSimulation.WIDTH; x += 64){
+            for(int y = 132; y < GameSimulation.HEIGHT - 25; y += 64){
+                for(int i = 0; i < path.getPathLength(); i += 16){
+                    compare(path.getX(i) - x, path.getY(i) - y);
+                }
+            }
+        }
+
+        System.out.printf("%d headings compared: worst error %.3g radians (for the vector %.6g, %.6g), tolerance %.3g radians%n",
+                compared, worst, worstX, worstY, tolerance);
+        if(worst > tolerance){
+            throw new IllegalStateException("GameMath.heading is off by " + worst + " radians, more than the tolerance of " + tolerance);
+        }
+    }
+
+    /**
+     * helper method to compare GameMath's heading of a vector with the acos formula's heading
+     */
+    private static void compare(double dx, double dy){
+        double length = Math.sqrt(dx*dx + dy*dy);
+        double unitX = dx/length, unitY = dy/length;
+        double expected = unitY < 0 ? -Math.acos(unitX) : Math.acos(unitX);
+
+        //the two formulas can disagree on the sign of pi (a vector pointing west with a y component of -0.0)
+        double error = Math.abs(GameMath.heading(dx, dy) - expected);
+        error = Math.min(error, Math.abs(error - 2*Math.PI));
+        if(error > worst){
+            worst = error;
+            worstX = dx;
+            worstY = dy;
+        }
+        compared++;
+    }
+}
@@ -0,0 +1,471 @@
+import bagel.util.Point;
+import bagel.util.Rectangle;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ShadowDefendBenchmarks measures the per-frame hot paths of the game with slicer and tower counts from 10 up to 100k
+ * the counts can be changed with -Dbenchmark.counts=10,1000 and the JSON results are written to -Dbenchmark.output
+ * it must be run from the project root so the maps in res/levels can be found
+ */
+public class ShadowDefendBenchmarks {
+
+    //static attributes
+    //the screen the benchmarks' slicers and towers are placed on (the same game screen as the GameSimulation)
+    private static final Rectangle GAME_SCREEN = new Rectangle(0, 100, GameSimulation.WIDTH, GameSimulation.HEIGHT - 125);
+    //slicers get enough health that no benchmark can eliminate them, so the inputs don't change between operations
+    private static final double UNKILLABLE = 1e15;
+
+    /**
+     * helper method to build the path of the first level
+     */
+    private static Path levelPath(){
+        return new Path(new LevelMap("res/levels/1.tmx").getAllPolylines().get(0), GAME_SCREEN);
+    }
+
+    /**
+     * helper method to place slicers at random points of a path
+     * @param count: the number of slicers
+     * @param path: the path the slicers are placed on
+     * @param random: the random number generator used to pick their positions
+     * @return the slicers, each with a location and bounding box
+     */
+    private static List<Slicer> slicersOnPath(int count, Path path, Random random){
+        List<Slicer> slicers = new ArrayList<Slicer>(count);
+        for(int i = 0; i < count; i++){
+            Slicer s = new Slicer(SlicerType.values()[random.nextInt(SlicerType.values().length)], 1, 0);
+            s.setLocationIndex(1 + random.nextInt(path.getPathLength() - 1));
+            //moving with a timescale of 0 gives the slicer its location without advancing it
+            s.move(0, path);
+            s.setHealth(UNKILLABLE);
+            slicers.add(s);
+        }
+        return slicers;
+    }
+
+    /**
+     * helper method to place active towers at random points of the game screen
+     * (each tower works out the part of the path its range covers, like a tower placed in a game)
+     */
+    private static List<Tower> towersOnScreen(int count, Random random, Path path){
+        List<Tower> towers = new ArrayList<Tower>(count);
+        for(int i = 0; i < count; i++){
+            Tower t = Tower.create(i % 2 == 0 ? "tank" : "supertank");
+            t.setLocation(new Point(GAME_SCREEN.left() + random.nextDouble()*GAME_SCREEN.right(),
+                    GAME_SCREEN.top() + random.nextDouble()*(GAME_SCREEN.bottom() - GAME_SCREEN.top())));
+            t.onPlaced(random, path);
+            towers.add(t);
+        }
+        return towers;
+    }
+
+    /**
+     * Path.generatePath for a random walk polyline with count segments of 8px
+     */
+    static class GeneratePath extends BenchmarkHarness.Benchmark {
+        private List<Point> polyline;
+
+        GeneratePath(){ super("Path.generatePath"); }
+
+        @Override
+        protected void setUp(int count){
+            this.polyline = randomWalk(count);
+        }
+
+        @Override
+        protected long operation(){
+            return new Path(this.polyline, GAME_SCREEN).getPathLength();
+        }
+    }
+
+    /**
+     * PathCache.read of the path of a random walk polyline with count segments of 8px (what a level load does instead of generatePath)
+     */
+    static class ReadPath extends BenchmarkHarness.Benchmark {
+        private File cache;
+        private byte[] key;
+
+        ReadPath(){ super("PathCache.read"); }
+
+        @Override
+        protected void setUp(int count) throws IOException {
+            this.cache = File.createTempFile("path", PathCache.SUFFIX);
+            this.cache.deleteOnExit();
+            File tmx = File.createTempFile("level", ".tmx");
+            tmx.deleteOnExit();
+            this.key = PathCache.key(tmx, GAME_SCREEN);
+            PathCache.write(new Path(randomWalk(count), GAME_SCREEN), this.key, this.cache);
+        }
+
+        @Override
+        protected long operation() throws IOException {
+            return PathCache.read(this.cache, this.key, GAME_SCREEN).getPathLength();
+        }
+    }
+
+    /**
+     * helper method to make a random walk polyline with count segments of 8px that stays on the game screen
+     */
+    private static List<Point> randomWalk(int count){
+        Random random = new Random(count);
+        List<Point> polyline = new ArrayList<Point>(count + 1);
+        double x = 512, y = 400;
+        polyline.add(new Point(x, y));
+        for(int i = 0; i < count; i++){
+            double angle = random.nextDouble()*2*Math.PI;
+            x = Math.min(Math.max(x + 8*Math.cos(angle), 0), GameSimulation.WIDTH);
+            y = Math.min(Math.max(y + 8*Math.sin(angle), 100), GameSimulation.HEIGHT - 25);
+            polyline.add(new Point(x, y));
+        }
+        return polyline;
+    }
+
+    /**
+     * the heading of count tower to slicer vectors, with GameMath's lookup table or with the acos formula it replaced
+     */
+    static class Headings extends BenchmarkHarness.Benchmark {
+        //lookup: whether the headings come from GameMath.heading (true) or Math.acos of the normalised vector (false)
+        private final boolean lookup;
+        private double[] dx, dy;
+
+        Headings(boolean lookup){
+            super(lookup ? "GameMath.heading" : "Math.acos heading");
+            this.lookup = lookup;
+        }
+
+        @Override
+        protected void setUp(int count){
+            Random random = new Random(count);
+            this.dx = new double[count];
+            this.dy = new double[count];
+            for(int i = 0; i < count; i++){
+                this.dx[i] = (2*random.nextDouble() - 1)*GameSimulation.WIDTH;
+                this.dy[i] = (2*random.nextDouble() - 1)*GameSimulation.HEIGHT;
+            }
+        }
+
+        @Override
+        protected long operation(){
+            double sum = 0;
+            for(int i = 0; i < this.dx.length; i++){
+                if(this.lookup){
+                    sum += GameMath.heading(this.dx[i], this.dy[i]);
+                }
+                else{
+                    double length = Math.sqrt(this.dx[i]*this.dx[i] + this.dy[i]*this.dy[i]);
+                    double unitX = this.dx[i]/length, unitY = this.dy[i]/length;
+                    sum += unitY < 0 ? -Math.acos(unitX) : Math.acos(unitX);
+                }
+            }
+            return Double.doubleToLongBits(sum);
+        }
+    }
+
+    /**
+     * ActiveTower.attack targeting (rebuilding the SlicerTrack and letting every tower attack) for count slicers or count towers
+     */
+    static class Targeting extends BenchmarkHarness.Benchmark {
+        //bySlicers: whether count is the number of slicers (with 40 towers) or the number of towers (with 500 slicers)
+        private final boolean bySlicers;
+        private List<Slicer> slicers;
+        private List<Tower> towers;
+        private final SlicerTrack track = new SlicerTrack();
+
+        Targeting(boolean bySlicers){
+            super(bySlicers ? "ActiveTower.attack(slicers)" : "ActiveTower.attack(towers)");
+            this.bySlicers = bySlicers;
+        }
+
+        @Override
+        protected void setUp(int count){
+            Random random = new Random(count);
+            Path path = levelPath();
+            this.slicers = slicersOnPath(this.bySlicers ? count : 500, path, random);
+            this.towers = towersOnScreen(this.bySlicers ? 40 : count, random, path);
+        }
+
+        @Override
+        protected long operation(){
+            this.track.rebuild(this.slicers);
+            long ammo = 0;
+            for(Tower t: this.towers){
+                t.attack(this.slicers, this.track, 1);
+                ammo += t.getAmmo().size();
+            }
+            return ammo;
+        }
+    }
+
+    /**
+     * Projectile.damageSlicers for count projectiles chasing their targets
+     */
+    static class ProjectileDamage extends BenchmarkHarness.Benchmark {
+        private List<Tower> towers;
+        private List<Slicer> targets;
+        private Projectile[] projectiles;
+        private final List<Slicer> none = Collections.emptyList();
+
+        ProjectileDamage(){ super("Projectile.damageSlicers"); }
+
+        @Override
+        protected void setUp(int count){
+            Random random = new Random(count);
+            Path path = levelPath();
+            this.targets = slicersOnPath(count, path, random);
+            this.towers = towersOnScreen(count, random, path);
+            this.projectiles = new Projectile[count];
+            for(int i = 0; i < count; i++){
+                this.projectiles[i] = new Projectile();
+                this.fire(i);
+            }
+        }
+
+        @Override
+        protected long operation(){
+            long hits = 0;
+            for(int i = 0; i < this.projectiles.length; i++){
+                //a projectile that hit its target is fired again from its tower
+                if(this.projectiles[i].damageSlicers(this.none, 1)){
+                    this.fire(i);
+                    hits++;
+                }
+            }
+            return hits;
+        }
+
+        private void fire(int i){
+            Tower t = this.towers.get(i);
+            this.projectiles[i].reset(t.getX(), t.getY(), t.getType(), this.targets.get(i));
+        }
+    }
+
+    /**
+     * Explosive.damageSlicers for an explosive detonating among count slicers
+     */
+    static class ExplosiveDamage extends BenchmarkHarness.Benchmark {
+        private List<Slicer> slicers;
+        private final List<Slicer> none = Collections.emptyList();
+        private final Explosive explosive = new Explosive();
+
+        ExplosiveDamage(){ super("Explosive.damageSlicers"); }
+
+        @Override
+        protected void setUp(int count){
+            this.slicers = slicersOnPath(count, levelPath(), new Random(count));
+        }
+
+        @Override
+        protected long operation(){
+            this.explosive.reset(GameSimulation.WIDTH/2.0, GameSimulation.HEIGHT/2.0);
+            //counting down the whole detonation time in one call so the next call detonates
+            this.explosive.damageSlicers(this.none, 120);
+            return this.explosive.damageSlicers(this.slicers, 1) ? 1 : 0;
+        }
+    }
+
+    /**
+     * GameSimulation.tick slicer bookkeeping (the old ShadowDefend.drawSlicers) for a wave of count slicers
+     */
+    static class SlicerBookkeeping extends BenchmarkHarness.Benchmark {
+        private String waves;
+        private GameSimulation simulation;
+
+        SlicerBookkeeping(){ super("GameSimulation.tick(slicers)"); }
+
+        @Override
+        protected void setUp(int count) throws IOException {
+            //one apexslicer wave spawning a slicer about every frame, so the wave fills up quickly and lasts a long time
+            this.waves = BenchmarkHarness.wavesFile("1,spawn," + count + ",apexslicer,17\n");
+            this.simulation = null;
+        }
+
+        @Override
+        protected long operation(){
+            //when the wave is over the game is restarted (the cost of which is spread over thousands of ticks)
+            if(this.simulation == null || !this.simulation.isWaveInProgress()){
+                this.simulation = new GameSimulation(this.waves, 1, 0);
+                this.simulation.startWave();
+            }
+            this.simulation.tick();
+            return this.simulation.getLives();
+        }
+    }
+
+    /**
+     * GameSimulation.canPlaceTower (the check run every frame while a tower is being placed) in a game with count towers
+     */
+    static class PlacementCheck extends BenchmarkHarness.Benchmark {
+        private GameSimulation simulation;
+        private Tower tank;
+        private Point[] points;
+        private int next = 0;
+
+        PlacementCheck(){ super("GameSimulation.canPlaceTower"); }
+
+        @Override
+        protected void setUp(int count){
+            this.simulation = new GameSimulation("res/levels/waves.txt", 1, 0);
+            Random random = new Random(count);
+            for(int i = 0; i < count; i++){
+                this.simulation.placeTower(Tower.create(i % 2 == 0 ? "tank" : "supertank"), randomPoint(random));
+            }
+            this.tank = Tower.create("tank");
+            this.points = new Point[1024];
+            for(int i = 0; i < this.points.length; i++){
+                this.points[i] = randomPoint(random);
+            }
+        }
+
+        @Override
+        protected long operation(){
+            this.next = (this.next + 1) % this.points.length;
+            return this.simulation.canPlaceTower(this.tank, this.points[this.next]) ? 1 : 0;
+        }
+
+        /**
+         * helper method to pick a whole pixel of the game screen (like a mouse position)
+         */
+        private static Point randomPoint(Random random){
+            return new Point(random.nextInt((int)GAME_SCREEN.right() + 1),
+                    GAME_SCREEN.top() + random.nextInt((int)(GAME_SCREEN.bottom() - GAME_SCREEN.top()) + 1));
+        }
+    }
+
+    /**
+     * WaveTable.compile for a waves file with count slicers spread over 10 waves (done once per waves file, the table is cached next to it)
+     */
+    static class CompileWaves extends BenchmarkHarness.Benchmark {
+        private File waves, table;
+
+        CompileWaves(){ super("WaveTable.compile"); }
+
+        @Override
+        protected void setUp(int count) throws IOException {
+            this.waves = new File(BenchmarkHarness.wavesFile(tenWaves(count)));
+            this.table = new File(this.waves.getPath() + WaveTable.SUFFIX);
+            this.table.deleteOnExit();
+        }
+
+        @Override
+        protected long operation() throws IOException {
+            WaveTable.compile(this.waves, this.table);
+            return this.table.length();
+        }
+    }
+
+    /**
+     * WaveTable.loadWave for a table with count slicers spread over 10 waves (done when a wave starts, it creates that wave's slicers)
+     */
+    static class LoadWaves extends BenchmarkHarness.Benchmark {
+        private WaveTable table;
+        private int wave = 0;
+
+        LoadWaves(){ super("WaveTable.loadWave"); }
+
+        @Override
+        protected void setUp(int count) throws IOException {
+            String waves = BenchmarkHarness.wavesFile(tenWaves(count));
+            new File(waves + WaveTable.SUFFIX).deleteOnExit();
+            this.table = WaveTable.open(waves);
+        }
+
+        @Override
+        protected long operation(){
+            this.wave = this.wave % this.table.getWaveCount() + 1;
+            return this.table.loadWave(this.wave).size();
+        }
+    }
+
+    /**
+     * SaveGame.save or SaveGame.load of a game with count towers and a wave of count slicers half spawned
+     */
+    static class SaveAndLoad extends BenchmarkHarness.Benchmark {
+        //load: whether the game is loaded from its save (true) or saved (false)
+        private final boolean load;
+        private GameSimulation simulation;
+        private File save;
+
+        SaveAndLoad(boolean load){
+            super(load ? "SaveGame.load" : "SaveGame.save");
+            this.load = load;
+        }
+
+        @Override
+        protected void setUp(int count) throws IOException {
+            //one apexslicer wave spawning a slicer every frame, run until half of it has spawned
+            this.simulation = new GameSimulation(BenchmarkHarness.wavesFile("1,spawn," + count + ",apexslicer,17\n"), 1, 0);
+            Random random = new Random(count);
+            for(int i = 0; i < count; i++){
+                this.simulation.placeTower(Tower.create(Tower.TYPES[i % Tower.TYPES.length]),
+                        new Point(random.nextDouble()*GameSimulation.WIDTH, 100 + random.nextDouble()*(GameSimulation.HEIGHT - 125)));
+            }
+            this.simulation.startWave();
+            this.simulation.tick(count/2);
+            this.save = File.createTempFile("save", ".sav");
+            this.save.deleteOnExit();
+            SaveGame.save(this.simulation, this.save);
+        }
+
+        @Override
+        protected long operation() throws IOException {
+            if(this.load){
+                SaveGame.load(this.simulation, this.save);
+            }
+            else{
+                SaveGame.save(this.simulation, this.save);
+            }
+            return this.simulation.getTicks();
+        }
+    }
+
+    /**
+     * helper method to write the text of a waves file with count slicers spread over 10 waves
+     */
+    private static String tenWaves(int count){
+        StringBuilder sb = new StringBuilder();
+        String[] types = {"slicer", "superslicer", "megaslicer", "apexslicer"};
+        for(int wave = 1; wave <= 10; wave++){
+            for(int i = 0; i < 4; i++){
+                sb.append(wave).append(",spawn,").append(Math.max(1, count/40)).append(',').append(types[i]).append(",500\n");
+                sb.append(wave).append(",delay,1000\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    //main method
+    public static void main(String[] args) throws Exception {
+        String[] countProperty = System.getProperty("benchmark.counts", "10,100,1000,10000,100000").split(",");
+        int[] counts = new int[countProperty.length];
+        for(int i = 0; i < counts.length; i++){
+            counts[i] = Integer.parseInt(countProperty[i].trim());
+        }
+
+        BenchmarkHarness harness = new BenchmarkHarness(
+                Integer.getInteger("benchmark.warmupIterations", 3),
+                Integer.getInteger("benchmark.iterations", 5),
+                Long.getLong("benchmark.iterationMillis", 1000L));
+
+        harness.run(new GeneratePath(), counts);
+        harness.run(new ReadPath(), counts);
+        harness.run(new Headings(true), counts);
+        harness.run(new Headings(false), counts);
+        harness.run(new Targeting(true), counts);
+        harness.run(new Targeting(false), counts);
+        harness.run(new ProjectileDamage(), counts);
+        harness.run(new ExplosiveDamage(), counts);
+        harness.run(new SlicerBookkeeping(), counts);
+        harness.run(new PlacementCheck(), counts);
+        harness.run(new CompileWaves(), counts);
+        harness.run(new LoadWaves(), counts);
+        harness.run(new SaveAndLoad(false), counts);
+        harness.run(new SaveAndLoad(true), counts);
+
+        harness.writeJson(System.getProperty("benchmark.output", "benchmarks.json"));
+    }
+}
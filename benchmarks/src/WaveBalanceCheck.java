@@ -0,0 +1,57 @@
+import bagel.util.Point;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WaveBalanceCheck plays levels whose results are known with a WaveBalanceRunner and throws if the runner reports anything else
+ * (failing the build when run by the verify phase of the root build)
+ *
+ * each level has a single wave, so it is also the level's last wave: ending it loads the next level, which resets the lives and cash,
+ * and the runner must still report the lives lost and cash earned during the wave
+ * it must be run from the project root so the maps in res/levels can be found
+ */
+public class WaveBalanceCheck {
+
+    //static attributes
+    //the number of games played of each level
+    private static final int GAMES = 4;
+    //the end of wave bonus of the first wave (see GameSimulation.updateSlicers)
+    private static final int BONUS = 150 + 100;
+
+    //main method
+    public static void main(String[] args) throws IOException {
+        String wavesFile = BenchmarkHarness.wavesFile("1,spawn,1,slicer,1000\n");
+
+        //with no towers the slicer reaches the end of the path and costs a life
+        check("no towers", new WaveBalanceRunner(wavesFile, 1, new ArrayList<WaveBalanceRunner.Purchase>()), 1, BONUS);
+
+        //a tank next to the start of the path eliminates the slicer, which earns its reward
+        List<WaveBalanceRunner.Purchase> layout = new ArrayList<WaveBalanceRunner.Purchase>();
+        layout.add(new WaveBalanceRunner.Purchase("tank", new Point(200, 250), 1));
+        check("a tank", new WaveBalanceRunner(wavesFile, 1, layout), 0, SlicerType.SLICER.getReward() + BONUS);
+    }
+
+    /**
+     * helper method to play a level's games and check the result of every game's (only) wave
+     * @param name: the name of the level printed with the result
+     * @param runner: the runner that plays the level
+     * @param livesLost: the lives every game must lose in the wave
+     * @param cashEarned: the cash every game must earn in the wave
+     */
+    private static void check(String name, WaveBalanceRunner runner, int livesLost, int cashEarned){
+        WaveBalanceRunner.WaveStatistics statistics = runner.run(GAMES, 0);
+        int[] lives = statistics.getLivesLost(1), cash = statistics.getCashEarned(1);
+        if(lives.length != GAMES || statistics.getCleared(1) != GAMES){
+            throw new IllegalStateException(name + ": " + statistics.getCleared(1) + " of " + lives.length + " games cleared the wave, expected " + GAMES);
+        }
+        for(int i = 0; i < GAMES; i++){
+            if(lives[i] != livesLost || cash[i] != cashEarned){
+                throw new IllegalStateException(name + ": a game lost " + lives[i] + " lives and earned " + cash[i] + " cash in the last wave, expected "
+                        + livesLost + " lives and " + cashEarned + " cash");
+            }
+        }
+        System.out.printf("%s: %d games lost %d lives and earned %d cash in the last wave%n", name, GAMES, livesLost, cashEarned);
+    }
+}
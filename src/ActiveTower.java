@@ -1,9 +1,8 @@
-import bagel.Image;
 import bagel.util.Rectangle;
-import bagel.util.Vector2;
 
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.Random;
 
 /**
  * ActiveTower class represents tanks and supertanks (towers that detect enemies)
@@ -11,27 +10,30 @@ import java.util.List;
 public class ActiveTower extends Tower {
 
     //radius: the shooting range of the tower in either direction (2*radius = length and width of this.range)
-    //cooldown: the time in frames that the tower must wait between consecutive shots
+    //cooldown: the time in ticks that the tower must wait between consecutive shots
     //timeToShoot: the time remaining before the next shot can be fired (initially = to cooldown)
     //range: a rectangle that represents the shooting range of the tower
+    //coverage: the intervals of the path covered by the range, worked out when the tower is placed
+    //policy: the rule used to pick which slicer in range to fire at
     private int radius, cooldown, timeToShoot;
     private Rectangle range;
+    private PathCoverage coverage;
+    private TargetPolicy policy = TargetPolicy.CLOSEST;
 
     /**
      * @param type: the type of ActiveTower (tank, supertank)
      */
     public ActiveTower(String type){
-        this.setImage(new Image("res/images/" + type + ".png"));
         this.setType(type);
         switch(type){
             case "tank":
                 this.radius = 100;
-                this.cooldown = 60;
+                this.cooldown = GameSimulation.TICK_RATE;
                 this.setPrice(250);
                 break;
             case "supertank":
                 this.radius = 150;
-                this.cooldown = 30;
+                this.cooldown = GameSimulation.TICK_RATE/2;
                 this.setPrice(600);
                 break;
         }
@@ -39,71 +41,106 @@ public class ActiveTower extends Tower {
     }
 
     /**
-     * @param slicers: a list of the slicers in the current wave, used to decide which slicer(s) to attack and to pass to the drawAmmo method
-     * @param timeScaleMultiplier: the timeScaleMultiplier from ShadowDefend used to affect movement of towers
+     * defines the range of the tower and works out which intervals of the path it covers
+     * the tower never moves so this is done once here instead of testing the range against every slicer each frame
+     * @param random: the random number generator of the GameSimulation the tower was placed in (unused, active towers don't behave randomly)
+     * @param path: the path of the level the tower was placed in
      */
     @Override
-    public void attack(List<Slicer> slicers, int timeScaleMultiplier) {
-
-        //if the range hasn't been defined yet then we define it
-        if(this.range == null){
-            this.range = new Rectangle(this.getLocation().x - this.radius,
-                    this.getLocation().y - this.radius,
-                    this.radius*2,
-                    this.radius*2);
-        }
+    public void onPlaced(Random random, Path path) {
+        this.range = new Rectangle(this.getX() - this.radius,
+                this.getY() - this.radius,
+                this.radius*2,
+                this.radius*2);
+        this.coverage = new PathCoverage(this.range, path);
+    }
 
-        //the slicer to be targeted by the next projectile will be stored in this list
-        List<Slicer> slicerInRange = new ArrayList<Slicer>(1);
+    /**
+     * @param slicers: a list of the slicers in the current wave
+     * @param track: the SlicerTrack of the current wave's targetable slicers, used to decide which slicer to attack
+     * @param timeScaleMultiplier: the timeScaleMultiplier from ShadowDefend used to affect movement of towers
+     */
+    @Override
+    public void attack(List<Slicer> slicers, SlicerTrack track, int timeScaleMultiplier) {
 
         //if the cooldown period has been reached, we check for slicers in range
         //if there are slicers in range we fire a projectile at it and restart the timeToShoot period
         if(this.timeToShoot <= 0){
 
-            //the distance variable tracks the shortest distance between a valid target and the tower
-            double distance = Double.MAX_VALUE;
             //the targettedSlicer variable tracks the slicer to be targetted by this tower
-            Slicer targettedSlicer = null;
-
-            for(Slicer s: slicers){
-                //only slicers currently on the path (bounding box != null), in range, and not eliminated or finished the path (locationIndex != -1) can be shot at
-                if(s.getBounding() != null && s.getBounding().intersects(this.range) && s.getHealth() > 0 && s.getLocationIndex() != -1){
-
-                    //toSlicer is the vector to the location of the slicer
-                    Vector2 toSlicer = new Vector2(s.getLocation().x, s.getLocation().y);
-                    //toTower is the vector to the location of the tower
-                    Vector2 toTower = new Vector2(this.getLocation().x, this.getLocation().y);
+            //only slicers currently on the path, in range, and not eliminated or finished the path can be shot at
+            //the track only looks at the slicers standing on the intervals of the path the range covers and returns the best one under the policy
+            Slicer targettedSlicer = track.findTarget(this.coverage, this.policy, this.getX(), this.getY());
 
-                    //betweenPoints is the vector pointing from the tower to the slicer
-                    Vector2 betweenPoints = toSlicer.sub(toTower);
-
-                    //if the length of the betweenPoints vector is shorter than the current shortest distance we update the distance and targettedSlicer vars
-                    if(distance > betweenPoints.length()){
-                        distance = betweenPoints.length();
-                        targettedSlicer = s;
-                    }
-                }
-            }
             //if the targettedSlicer is not null then there is a valid slicer to be targetted
-            //this slicer will be the valid slicer closest to the tower
+            //by default this slicer will be the valid slicer closest to the tower
             //I decided to use this methodology instead of targetting the first valid slicer because it proved to be more effective at eliminating slicers
+            //we fire a projectile at it (reusing one of this tower's old projectiles if there is one), reset the timeToShoot and set the direction of the tank based on this target
             if(targettedSlicer != null){
-                slicerInRange.add(targettedSlicer);
-            }
-            //if there is a slicer in range: we will add a new projectile to the ammo list, reset the timeToShoot and set the direction of the tank based on this targe
-            if(slicerInRange.size() > 0) {
-                this.getAmmo().add(new Projectile(this.getLocation(), this.getType()));
+                //an active tower only ever fires projectiles so its spare ammo are all projectiles
+                Projectile projectile = (Projectile)this.reuseAmmo();
+                if(projectile == null){
+                    projectile = new Projectile();
+                }
+                projectile.reset(this.getX(), this.getY(), this.getType(), targettedSlicer);
+                this.getAmmo().add(projectile);
                 this.timeToShoot = this.cooldown;
 
-                Slicer target = slicerInRange.get(0);
-                this.setDirection(calculateDirection(target));
+                this.setDirection(calculateDirection(targettedSlicer));
             }
         }
         //if the cooldown period hasn't been reached we simply decrement the timeToShoot counter
         else{
             this.timeToShoot -= timeScaleMultiplier;
         }
-        //the drawAmmo method is always called
-        this.drawAmmo(slicerInRange, timeScaleMultiplier);
+        //the updateAmmo method is always called (every projectile already has its target so the slicers are only passed on)
+        this.updateAmmo(slicers, timeScaleMultiplier);
+    }
+
+    /**
+     * @return a projectile of this tower's type that hasn't been fired
+     */
+    @Override
+    protected Ammo createAmmo() {
+        Projectile projectile = new Projectile();
+        projectile.reset(this.getX(), this.getY(), this.getType(), null);
+        return projectile;
+    }
+
+    /**
+     * method to write the state of this tower to a snapshot (its range and coverage are worked out again when it is restored)
+     * @param out: the buffer the state is written to
+     */
+    @Override
+    public void save(ByteBuffer out) {
+        super.save(out);
+        out.putInt(this.timeToShoot).put((byte)this.policy.ordinal());
+    }
+
+    /**
+     * method to set the state of this tower from a snapshot written by save
+     * @param in: the buffer the state is read from
+     * @param random: the random number generator of the GameSimulation the tower is restored in
+     * @param path: the path of the level the tower is restored in, used to work out the coverage of the range
+     * @param slicers: the live slicers of the restored game
+     */
+    @Override
+    protected void restore(ByteBuffer in, Random random, Path path, SlicerSet slicers) {
+        super.restore(in, random, path, slicers);
+        this.timeToShoot = in.getInt();
+        this.policy = TargetPolicy.values()[in.get()];
+        this.onPlaced(random, path);
     }
+
+    //Getters and Setters
+
+    /**
+     * @return the rule this tower uses to pick which slicer in range to fire at
+     */
+    public TargetPolicy getPolicy() { return policy; }
+
+    /**
+     * @param policy: the new rule this tower uses to pick which slicer in range to fire at
+     */
+    public void setPolicy(TargetPolicy policy) { this.policy = policy; }
 }
@@ -1,20 +1,18 @@
-import bagel.Image;
-import bagel.util.Point;
-import bagel.util.Rectangle;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
  * Abstract Ammo class extended by the Projectile and Explosive classes
  * Defines damageSlicers method which will be used by the Projectile and Explosive classes to damageSlicers in their own way
+ * ammo objects are reused by the tower that fired them (see Tower.reuseAmmo) so their position is updated in place
  */
 public abstract class Ammo {
-    //location: the current location of the ammo
-    //bounding: the bounding box of the ammo
-    //image: the image of the ammo
+    //x, y: the current location of the ammo
+    //previousX, previousY: the location of the ammo at the start of the current tick, used to interpolate its drawn position
+    //imageName: the name of the ammo's image in res/images (only used to render the ammo)
     //damage: the damage that the ammo inflicts on slicers that are hit by it
-    private Point location;
-    private Rectangle bounding;
-    private Image image;
+    private double x, y, previousX, previousY;
+    private String imageName;
     private int damage;
 
     /**
@@ -24,41 +22,76 @@ public abstract class Ammo {
      */
     public abstract boolean damageSlicers(List<Slicer> slicers, int timeScaleMultiplier);
 
-    //Getters and Setters
+    /**
+     * method to save the ammo's current location as its previous location (called at the start of each tick and when it is fired)
+     */
+    public void savePosition(){
+        this.previousX = this.x;
+        this.previousY = this.y;
+    }
 
     /**
-     * @return the Point on the screen of the ammo
+     * @param alpha: how far the current time is between the last tick (0) and the next tick (1)
+     * @return the x coordinate the ammo is drawn at, between its previous and current location
      */
-    public Point getLocation() { return location; }
+    public double getDrawX(double alpha) { return previousX + (x - previousX)*alpha; }
 
     /**
-     * @param location: the new location of the ammo
-     * @param r: the new bounding box of the ammo must be passed because a new location will result in a new bounding
+     * @param alpha: how far the current time is between the last tick (0) and the next tick (1)
+     * @return the y coordinate the ammo is drawn at, between its previous and current location
      */
-    public void setLocation(Point location, Rectangle r){
-        this.location = location;
-        this.setBounding(r);
+    public double getDrawY(double alpha) { return previousY + (y - previousY)*alpha; }
+
+    /**
+     * method to write the state of this ammo to a snapshot (its image and damage come from its tower so they aren't written)
+     * @param out: the buffer the state is written to
+     */
+    public void save(ByteBuffer out){
+        out.putDouble(this.x).putDouble(this.y).putDouble(this.previousX).putDouble(this.previousY);
     }
 
     /**
-     * @return the Rectangle corresponding to the bounding box of the ammo
+     * method to set the state of this ammo from a snapshot written by save
+     * @param in: the buffer the state is read from
+     * @param slicers: the live slicers of the restored game (already restored, in the order they were saved)
      */
-    public Rectangle getBounding() { return bounding; }
+    public void restore(ByteBuffer in, SlicerSet slicers){
+        this.x = in.getDouble();
+        this.y = in.getDouble();
+        this.previousX = in.getDouble();
+        this.previousY = in.getDouble();
+    }
+
+    //Getters and Setters
+
+    /**
+     * @return the x coordinate on the screen of the ammo
+     */
+    public double getX() { return x; }
 
     /**
-     * @param bounding: the new bounding box of the ammo
+     * @return the y coordinate on the screen of the ammo
      */
-    public void setBounding(Rectangle bounding) { this.bounding = bounding; }
+    public double getY() { return y; }
+
+    /**
+     * @param x: the new x coordinate of the ammo
+     * @param y: the new y coordinate of the ammo
+     */
+    public void setPosition(double x, double y){
+        this.x = x;
+        this.y = y;
+    }
 
     /**
-     * @return the Image of this ammo
+     * @return the name of the image of this ammo in res/images
      */
-    public Image getImage() { return image; }
+    public String getImageName() { return imageName; }
 
     /**
-     * @param image: the new Image of this ammo
+     * @param imageName: the new name of the image of this ammo in res/images
      */
-    public void setImage(Image image) { this.image = image; }
+    public void setImageName(String imageName) { this.imageName = imageName; }
 
     /**
      * @return the amount of damage this ammo causes to slicers
@@ -0,0 +1,114 @@
+import bagel.Image;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * AssetRegistry class is the render thread's cache of the Images used by ShadowDefend
+ * the same Image handle is shared by every slicer, tower and ammo that uses it (bagel's TextureManager already loads each GL texture
+ * only once per path, so what the registry saves is creating an Image wrapper, and building its path, for every request)
+ *
+ * it isn't synchronized: an Image needs the window's GL context, so the registry may only be used from the thread that runs the game
+ * (LevelLoader's background thread loads maps and paths, never Images), and a request from any other thread throws
+ */
+public final class AssetRegistry {
+
+    /*
+    images: the loaded Images keyed by their path
+    imagesByName: the same Images keyed by their name in res/images, so a lookup by name doesn't have to build the path
+    hits: the number of requests that were served by an Image that had already been loaded
+    misses: the number of requests that had to load a new Image from disk
+    residentBytes: an estimate of the texture memory held by the loaded Images (4 bytes per pixel, RGBA)
+    owner: the thread the registry is used from, set by the first request
+     */
+    private static final Map<String, Image> images = new HashMap<String, Image>();
+    private static final Map<String, Image> imagesByName = new HashMap<String, Image>();
+    private static long hits = 0, misses = 0, residentBytes = 0;
+    private static Thread owner;
+
+    private AssetRegistry(){}
+
+    /**
+     * method to get the shared Image for a path, loading it the first time it is requested
+     * @param path: the path of the image file (e.g. res/images/slicer.png)
+     * @return the shared Image for the path
+     */
+    public static Image getImage(String path){
+        checkThread();
+        Image image = images.get(path);
+
+        //if the image has already been loaded we hand out the existing handle
+        if(image != null){
+            hits++;
+            return image;
+        }
+
+        //otherwise we load the image and remember it for every later request
+        image = new Image(path);
+        images.put(path, image);
+        misses++;
+        residentBytes += 4L*(long)image.getWidth()*(long)image.getHeight();
+        return image;
+    }
+
+    /**
+     * helper method to get the shared Image of a file in the res/images folder
+     * @param name: the name of the image without its extension (e.g. tank, apexslicer, tank_projectile)
+     * @return the shared Image for res/images/{name}.png
+     */
+    public static Image getImageByName(String name){
+        checkThread();
+        Image image = imagesByName.get(name);
+        if(image != null){
+            hits++;
+            return image;
+        }
+        image = getImage("res/images/" + name + ".png");
+        imagesByName.put(name, image);
+        return image;
+    }
+
+    /**
+     * helper method to check that the registry is used from the thread it belongs to
+     * @throws IllegalStateException if the calling thread isn't the one that made the first request
+     */
+    private static void checkThread(){
+        Thread current = Thread.currentThread();
+        if(owner == null){
+            owner = current;
+        }
+        else if(owner != current){
+            throw new IllegalStateException("AssetRegistry belongs to the thread " + owner.getName() + " but was used from " + current.getName());
+        }
+    }
+
+    //Getters
+
+    /**
+     * @return the number of requests that were served by an already loaded Image
+     */
+    public static long getHits(){ return hits; }
+
+    /**
+     * @return the number of requests that had to load an Image from disk
+     */
+    public static long getMisses(){ return misses; }
+
+    /**
+     * @return the number of distinct textures currently held by the registry
+     */
+    public static int getTextureCount(){ return images.size(); }
+
+    /**
+     * @return the estimated number of bytes of texture memory held by the registry
+     */
+    public static long getResidentBytes(){ return residentBytes; }
+
+    /**
+     * @return a one line summary of the registry's statistics (useful when profiling wave load times)
+     */
+    public static String getStatistics(){
+        return String.format("textures: %d, hits: %d, misses: %d, resident: %,d bytes",
+                images.size(), hits, misses, residentBytes);
+    }
+}
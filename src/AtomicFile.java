@@ -0,0 +1,52 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * AtomicFile class replaces the contents of a file in one step, for the saves (SaveGame), compiled waves files (WaveTable) and cached paths (PathCache)
+ * the new contents are written to a partial file next to the file, forced to the disk and then moved over the file,
+ * so a file that is being written is never read and a game that crashes while writing never leaves half a file
+ */
+public final class AtomicFile {
+
+    private AtomicFile(){}
+
+    /**
+     * method to replace a file with new contents
+     * @param file: the file to replace (created if it doesn't exist)
+     * @param contents: the new contents of the file, from the buffer's position to its limit
+     * @throws IOException if the file can't be written
+     */
+    public static void write(File file, ByteBuffer contents) throws IOException {
+        //the partial file keeps the file's extension, so a partial file left by a crash is ignored like the file itself
+        String name = file.getName();
+        String suffix = name.lastIndexOf('.') > 0 ? name.substring(name.lastIndexOf('.')) : ".partial";
+        File partial = File.createTempFile("partial", suffix, file.getAbsoluteFile().getParentFile());
+        try{
+            FileChannel channel = FileChannel.open(partial.toPath(), StandardOpenOption.WRITE);
+            try{
+                while(contents.hasRemaining()){
+                    channel.write(contents);
+                }
+                channel.force(false);
+            }
+            finally{
+                channel.close();
+            }
+            try{
+                Files.move(partial.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch(AtomicMoveNotSupportedException e){
+                Files.move(partial.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        finally{
+            partial.delete();
+        }
+    }
+}
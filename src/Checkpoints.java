@@ -0,0 +1,130 @@
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Checkpoints class keeps snapshots of a GameSimulation (see GameSimulation.saveState) taken every interval ticks in one flat byte buffer
+ * going back to any tick restores the latest checkpoint at or before it and runs the ticks after it again, so getting to a tick
+ * never takes more than interval ticks however long the game is
+ */
+public class Checkpoints {
+
+    /*
+    interval: the number of ticks between two checkpoints
+    buffer: the snapshots one after another, replaced by one twice the size when a snapshot doesn't fit
+    ticks: the tick each checkpoint was taken on (in increasing order)
+    offsets: where the snapshot of each checkpoint starts in the buffer
+    markers: a number stored with each checkpoint by whoever takes it (e.g. the replay event to carry on from)
+    count: the number of checkpoints taken
+     */
+    private final int interval;
+    private ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+    private long[] ticks = new long[16];
+    private int[] offsets = new int[16], markers = new int[16];
+    private int count = 0;
+
+    /**
+     * @param interval: the number of ticks between two checkpoints
+     */
+    public Checkpoints(int interval){
+        this.interval = interval;
+    }
+
+    /**
+     * @param simulation: the game the checkpoints are taken of
+     * @return whether the game is interval ticks or more past the last checkpoint (or no checkpoint has been taken)
+     */
+    public boolean isDue(GameSimulation simulation){
+        return this.count == 0 || simulation.getTicks() >= this.ticks[this.count - 1] + this.interval;
+    }
+
+    /**
+     * method to take a checkpoint of a game, checkpoints only go forwards so nothing is taken if the game isn't past the last one
+     * @param simulation: the game the checkpoint is taken of
+     * @param marker: a number stored with the checkpoint
+     */
+    public void take(GameSimulation simulation, int marker){
+        if(this.count > 0 && simulation.getTicks() <= this.ticks[this.count - 1]){
+            return;
+        }
+        if(this.count == this.ticks.length){
+            this.ticks = Arrays.copyOf(this.ticks, 2*this.count);
+            this.offsets = Arrays.copyOf(this.offsets, 2*this.count);
+            this.markers = Arrays.copyOf(this.markers, 2*this.count);
+        }
+
+        //if the snapshot doesn't fit, the part of it that was written is dropped and it is written again into a bigger buffer
+        int offset = this.buffer.position();
+        while(true){
+            try{
+                simulation.saveState(this.buffer);
+                break;
+            }
+            catch(BufferOverflowException e){
+                ByteBuffer grown = ByteBuffer.allocate(2*this.buffer.capacity());
+                this.buffer.limit(offset);
+                this.buffer.position(0);
+                grown.put(this.buffer);
+                this.buffer = grown;
+            }
+        }
+        this.ticks[this.count] = simulation.getTicks();
+        this.offsets[this.count] = offset;
+        this.markers[this.count] = marker;
+        this.count++;
+    }
+
+    /**
+     * @param tick: a tick of the game
+     * @return the latest checkpoint taken at or before the tick (-1 if there is none)
+     */
+    public int find(long tick){
+        //binary searching for the last checkpoint whose tick isn't after the tick
+        int low = 0, high = this.count;
+        while(low < high){
+            int middle = (low + high) >>> 1;
+            if(this.ticks[middle] <= tick){
+                low = middle + 1;
+            }
+            else{
+                high = middle;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * method to put a game back in the state of a checkpoint
+     * @param checkpoint: the index of the checkpoint (e.g. from find)
+     * @param simulation: the game to restore, created with the same waves file as the game the checkpoint was taken of
+     */
+    public void restore(int checkpoint, GameSimulation simulation){
+        ByteBuffer snapshot = this.buffer.duplicate();
+        snapshot.position(this.offsets[checkpoint]);
+        simulation.restoreState(snapshot);
+    }
+
+    //Getters
+
+    /**
+     * @param checkpoint: the index of a checkpoint
+     * @return the tick the checkpoint was taken on
+     */
+    public long getTick(int checkpoint) { return ticks[checkpoint]; }
+
+    /**
+     * @param checkpoint: the index of a checkpoint
+     * @return the number stored with the checkpoint
+     */
+    public int getMarker(int checkpoint) { return markers[checkpoint]; }
+
+    /**
+     * @return the number of checkpoints taken
+     */
+    public int getCount() { return count; }
+
+    /**
+     * @return the number of bytes the snapshots of the checkpoints take up
+     */
+    public int getBytes() { return buffer.position(); }
+}
@@ -1,10 +1,9 @@
-import bagel.Image;
-import bagel.util.Point;
-import bagel.util.Rectangle;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
  * Explosive class represents ammo for Passive Towers
+ * an explosive is reset with a new position each time its tower drops it
  */
 public class Explosive extends Ammo{
 
@@ -13,15 +12,45 @@ public class Explosive extends Ammo{
     private int radius, timeToDetonate;
 
     /**
-     * @param location: the Point on the screen at which the explosive was dropped
+     * creates an explosive that hasn't been dropped yet, reset must be called before it is used
      */
-    public Explosive(Point location){
+    public Explosive(){
         this.radius = 200;
-        this.setLocation(location, new Rectangle(location.x - 200, location.y - 200, 2*this.radius, 2*this.radius));
-        this.setImage(new Image("res/images/explosive.png"));
+        this.setImageName("explosive");
         this.setDamage(500);
-        //120 frames is 2 seconds
-        this.timeToDetonate = 120;
+    }
+
+    /**
+     * method to drop the explosive
+     * @param x: the x coordinate on the screen at which the explosive was dropped
+     * @param y: the y coordinate on the screen at which the explosive was dropped
+     */
+    public void reset(double x, double y){
+        this.setPosition(x, y);
+        this.savePosition();
+        //explosives detonate after 2 seconds
+        this.timeToDetonate = 2*GameSimulation.TICK_RATE;
+    }
+
+    /**
+     * method to write the state of this explosive to a snapshot
+     * @param out: the buffer the state is written to
+     */
+    @Override
+    public void save(ByteBuffer out){
+        super.save(out);
+        out.putInt(this.timeToDetonate);
+    }
+
+    /**
+     * method to set the state of this explosive from a snapshot written by save
+     * @param in: the buffer the state is read from
+     * @param slicers: the live slicers of the restored game (unused, explosives don't keep a target)
+     */
+    @Override
+    public void restore(ByteBuffer in, SlicerSet slicers){
+        super.restore(in, slicers);
+        this.timeToDetonate = in.getInt();
     }
 
     /**
@@ -33,11 +62,17 @@ public class Explosive extends Ammo{
      */
     @Override
     public boolean damageSlicers(List<Slicer> slicers, int timeScaleMultiplier){
-        //if the timeToDetonate is 0 then the explosive can damage all slicers within its radius
-        if(this.timeToDetonate == 0){
-            for(Slicer s: slicers){
-                //if the slicer is active (index is not -1) and it intersects with the explosive we deduct health from it
-                if(s.getBounding() != null && s.getLocationIndex() != - 1 && s.getBounding().intersects(this.getBounding()) && s.getHealth() > 0){
+        //if the timeToDetonate has run out then the explosive can damage all slicers within its radius
+        //(it is checked with <= so a countdown that is decremented by more than 1 can't skip past 0)
+        if(this.timeToDetonate <= 0){
+            //the square area of the explosion
+            double left = this.getX() - this.radius, right = left + 2*this.radius;
+            double top = this.getY() - this.radius, bottom = top + 2*this.radius;
+
+            for(int i = 0; i < slicers.size(); i++){
+                Slicer s = slicers.get(i);
+                //if the slicer is active (index is not -1) and it overlaps the explosion (touching edges don't count) we deduct health from it
+                if(s.getLocationIndex() != - 1 && s.intersects(left, top, right, bottom) && s.getHealth() > 0){
                     //deducting the health from the slicer
                     s.deductHealth(this.getDamage());
                 }
@@ -0,0 +1,64 @@
+/**
+ * GameMath class is the small math kernel used wherever the game compares distances or works out which way something faces
+ * distances are compared squared so no square root is needed, and headings come from a lookup table of arctangents instead of
+ * Math.acos of a normalised vector (which needs a square root, a division and a sign branch on top of the acos)
+ */
+public final class GameMath {
+
+    //static attributes
+    //the number of steps the table splits the arctangents of [0, 1] into, the table has one more entry for atan(1)
+    private static final int ATAN_STEPS = 1024;
+    //ATAN_TABLE[i] is atan(i/ATAN_STEPS), values between two entries are interpolated linearly (an error below 1e-7 radians)
+    private static final double[] ATAN_TABLE = new double[ATAN_STEPS + 1];
+
+    static {
+        for(int i = 0; i <= ATAN_STEPS; i++){
+            ATAN_TABLE[i] = Math.atan((double)i/ATAN_STEPS);
+        }
+    }
+
+    private GameMath(){}
+
+    /**
+     * @param x1, y1: the first point
+     * @param x2, y2: the second point
+     * @return the squared distance between the two points (compare it with a squared distance instead of taking its square root)
+     */
+    public static double distanceSquared(double x1, double y1, double x2, double y2){
+        double dx = x2 - x1, dy = y2 - y1;
+        return dx*dx + dy*dy;
+    }
+
+    /**
+     * method to find the angle of a vector, the same angle as Math.atan2(dy, dx)
+     * (on the screen y points down, so positive angles turn clockwise from east)
+     * @param dx: the x component of the vector
+     * @param dy: the y component of the vector
+     * @return the angle in radians between the vector and the unit vector pointing east, in [-pi, pi] (0 for the zero vector)
+     */
+    public static double heading(double dx, double dy){
+        double ax = Math.abs(dx), ay = Math.abs(dy);
+        if(ax == 0 && ay == 0){
+            return 0;
+        }
+
+        //the angle is found in the first octant (where the ratio of the smaller to the larger component is in [0, 1]) and then reflected
+        double angle = ax >= ay ? atan(ay/ax) : Math.PI/2 - atan(ax/ay);
+        if(dx < 0){
+            angle = Math.PI - angle;
+        }
+        return dy < 0 ? -angle : angle;
+    }
+
+    /**
+     * helper method to look up the arctangent of a ratio in [0, 1]
+     */
+    private static double atan(double ratio){
+        double position = ratio*ATAN_STEPS;
+        int i = (int)position;
+        if(i == ATAN_STEPS){
+            return ATAN_TABLE[ATAN_STEPS];
+        }
+        return ATAN_TABLE[i] + (ATAN_TABLE[i + 1] - ATAN_TABLE[i])*(position - i);
+    }
+}
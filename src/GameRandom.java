@@ -0,0 +1,57 @@
+import java.util.Random;
+
+/**
+ * GameRandom class is the random number generator of a GameSimulation
+ * it draws exactly the same numbers as java.util.Random with the same seed, but its state can be read and set,
+ * so a snapshot of a game can hold the generator's state and a restored game draws the same numbers the original would have
+ */
+public class GameRandom extends Random {
+
+    //static attributes
+    private static final long serialVersionUID = 1L;
+    //the constants of java.util.Random's linear congruential generator (its state is 48 bits)
+    private static final long MULTIPLIER = 0x5DEECE66DL, ADDEND = 0xBL, MASK = (1L << 48) - 1;
+
+    /*
+    state: the 48 bit state of the generator (it has no initializer because Random's constructor sets it through setSeed)
+     */
+    private long state;
+
+    /**
+     * @param seed: the seed of the generator
+     */
+    public GameRandom(long seed){
+        super(seed);
+    }
+
+    /**
+     * @param seed: the new seed of the generator (scrambled like java.util.Random's seed)
+     */
+    @Override
+    public synchronized void setSeed(long seed){
+        super.setSeed(seed);
+        this.state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    /**
+     * @param bits: the number of random bits to generate
+     * @return the next random bits, every other method of Random draws its numbers from this one
+     */
+    @Override
+    protected int next(int bits){
+        this.state = (this.state*MULTIPLIER + ADDEND) & MASK;
+        return (int)(this.state >>> (48 - bits));
+    }
+
+    //Getters and Setters
+
+    /**
+     * @return the state of the generator (not the seed, setState has to be used to go back to it)
+     */
+    public long getState() { return state; }
+
+    /**
+     * @param state: a state returned by getState
+     */
+    public void setState(long state) { this.state = state & MASK; }
+}
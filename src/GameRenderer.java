@@ -0,0 +1,117 @@
+import bagel.DrawOptions;
+import bagel.Image;
+import bagel.util.Point;
+
+import java.util.List;
+
+/**
+ * GameRenderer class draws the state of a GameSimulation on the screen
+ * it only reads the simulation's state, all of the game's rules live in the GameSimulation
+ */
+public class GameRenderer {
+
+    /*
+    map: the tiles of the level being drawn, composed into a single texture so the map is one draw call
+    mapLevel: the level the map was loaded for
+    hud: the retained buy panel and status panel, only rebuilds the text of values that changed
+    rotation: the DrawOptions used for the tower being placed, its rotation is set before each draw so no DrawOptions are created per frame
+    sprites: the batch the slicers, towers and ammo are added to, so each of their textures is bound once per flush instead of once per entity
+     */
+    private Image map;
+    private int mapLevel;
+    private final Hud hud = new Hud(GameSimulation.WIDTH, GameSimulation.HEIGHT);
+    private final DrawOptions rotation = new DrawOptions();
+    private final SpriteBatch sprites = new SpriteBatch();
+
+    /**
+     * @param level: the level the simulation starts on
+     */
+    public GameRenderer(int level){
+        this.loadMap(level);
+    }
+
+    /**
+     * helper method to swap in the map of a level and start composing the next level's map in the background
+     * @param level: the level to be drawn
+     */
+    private void loadMap(int level){
+        this.map = StaticLayers.getMapLayer("res/levels/" + level + ".tmx");
+        this.mapLevel = level;
+        StaticLayers.preloadMapLayer("res/levels/" + (level + 1) + ".tmx");
+    }
+
+    /**
+     * method to draw a frame of the game
+     * @param simulation: the GameSimulation to be drawn
+     * @param towerToBePlaced: the tower the user is placing, or null if the user isn't placing a tower
+     * @param placementPosition: the position the towerToBePlaced is drawn at (null if it is not a valid position)
+     * @param alpha: how far the current time is between the simulation's last tick (0) and its next tick (1), moving things are drawn this far between their previous and current positions
+     */
+    public void render(GameSimulation simulation, Tower towerToBePlaced, Point placementPosition, double alpha){
+        //if the simulation moved to another level we load the map for that level
+        //when the player wins there is no map for the level so we keep drawing the last map
+        if(simulation.getLevel() != this.mapLevel && simulation.getWave() != -1){
+            this.loadMap(simulation.getLevel());
+        }
+
+        //drawing the map
+        this.map.drawFromTopLeft(0, 0);
+
+        //drawing the slicers of the current wave while a wave is in progress
+        if(simulation.isWaveInProgress()){
+            drawSlicers(simulation.getCurrentWaveSlicers(), alpha);
+        }
+
+        //drawing the towerToBePlaced at the current mouse position with the proper direction (for airsupport)
+        if(towerToBePlaced != null && placementPosition != null){
+            AssetRegistry.getImageByName(towerToBePlaced.getType()).draw(placementPosition.x,
+                    placementPosition.y,
+                    this.rotation.setRotation(towerToBePlaced.getDirection()));
+        }
+
+        //drawing the buy panel, status panel, and towers
+        this.hud.update(simulation.getCash(), simulation.getLives(), simulation.getWave(),
+                simulation.getTimescaleMultiplier(), simulation.getStatus(), simulation.isWaveInProgress());
+        this.hud.drawBuyPanel();
+        this.hud.drawStatusPanel();
+        drawTowers(simulation.getTowers(), alpha);
+    }
+
+    /**
+     * method to draw the slicers that are on the path (in one batch, as they are drawn under the panels)
+     * @param slicers: the slicers of the current wave
+     * @param alpha: how far the current time is between the simulation's last tick and its next tick
+     */
+    private void drawSlicers(List<Slicer> slicers, double alpha){
+        for(int i = 0; i < slicers.size(); i++){
+            Slicer s = slicers.get(i);
+            //slicers that haven't moved yet have no location and slicers that are eliminated or finished have a locationIndex of -1
+            if(s.isOnPath() && s.getLocationIndex() != -1){
+                this.sprites.add(s.getType(), s.getDrawX(alpha), s.getDrawY(alpha), s.getAngle());
+            }
+        }
+        this.sprites.flush();
+    }
+
+    /**
+     * method to draw all the towers on the game screen and their ammo (in one batch, so the ammo is drawn over every tower)
+     * @param towers: a list of all the towers currently in the game
+     * @param alpha: how far the current time is between the simulation's last tick and its next tick
+     */
+    private void drawTowers(List<Tower> towers, double alpha){
+        for(int i = 0; i < towers.size(); i++){
+            Tower t = towers.get(i);
+            //towers that are out of play (airsupport that left the screen) are not drawn
+            if(t.isInPlay()) {
+                this.sprites.add(t.getType(), t.getDrawX(alpha), t.getDrawY(alpha), t.getDirection());
+            }
+
+            //adding the tower's ammo to the batch
+            for(int j = 0; j < t.getAmmo().size(); j++){
+                Ammo a = t.getAmmo().get(j);
+                this.sprites.add(a.getImageName(), a.getDrawX(alpha), a.getDrawY(alpha), 0);
+            }
+        }
+        this.sprites.flush();
+    }
+}
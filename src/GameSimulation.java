@@ -0,0 +1,717 @@
+import bagel.util.Point;
+import bagel.util.Rectangle;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.Callable;
+
+/**
+ * GameSimulation class holds the state and rules of a game of ShadowDefend without any rendering
+ * it is stepped one frame at a time with tick() and can run without a window (e.g. for balance and regression checks),
+ * ShadowDefend forwards the user's input to it and draws its state
+ */
+public class GameSimulation {
+
+    //static attributes
+    public static final int WIDTH = 1024;
+    public static final int HEIGHT = 768;
+    //the number of logic ticks per second of game time, every duration in the game (spawn delays, cooldowns, timers) is counted in ticks
+    public static final int TICK_RATE = 60;
+    //every status the game can show, a snapshot stores the status stack as indexes in this array
+    private static final String[] STATUSES = {"Awaiting Start", "Wave In Progress", "Placing", "Winner"};
+
+    /*
+    waves: the compiled table of the waves file, each wave's slicers are created from it when the wave starts
+    seed: the seed of the random number generator, a replay of the game starts a GameSimulation with the same seed
+    random: the random number generator used by the towers of this game (seeded so a game can be reproduced, its state is part of a snapshot)
+    ticks: the number of ticks run since the game was created (never reset, replays use it to apply inputs on the same tick)
+    map: the game logic's view of the tmx map with the polylines and blocked tiles
+    placement: the bitmaps of the level's blocked pixels and placed towers, used to check where a tower can be placed
+    status: A stack where the top item is to be displayed to the user indicating the current status of the game
+    lives: the number of lives the player has remaining
+    wave: tracks which wave the user is on
+    cash: the variable that tracks the amount of cash available to the user
+    framesPassed: represents the number of logic ticks (1x frames) that have passed since the wave was started
+    timeScaleMultiplier: the number of logic steps run for each frame (fast-forwarding runs more steps per frame, each step is a 1x frame)
+    level: the level the user is on
+    waveInProgress: represents whether the user has started the current wave (pressed s) and it hasn't finished yet
+    waveEndLives, waveEndCash: the lives and cash the last wave to end finished with (before the next level or a reset changed them),
+    they aren't part of a snapshot since they are only meant to be read right after the tick that ended a wave
+    horizontal: indicates whether the next airsupport tower placed should fly horizontal or vertical
+    path: a Path object that stores the path along the polylines of the map and the corresponding angle at each point of the path
+    spawnScheduler: the slicers of the current wave that haven't spawned yet, sorted by the frame they spawn on
+    liveSlicers: the slicers of the current wave that are on the path (spawned and not yet eliminated or finished)
+    gameScreen: the bounding box for the actual game screen (excluding the buy panel and status panel)
+    towers: a list of all the towers currently in the game
+    slicerTrack: the current wave's targetable slicers sorted by how far along the path they are, rebuilt every frame and used by towers to find slicers in range
+     */
+    private final WaveTable waves;
+    private final long seed;
+    private final GameRandom random;
+    private long ticks = 0;
+    private LevelMap map;
+    private PlacementMap placement;
+    private Stack<String> status = new Stack<String>();
+    private int lives = 25, wave = 1, cash = 500, framesPassed = 0, timescaleMultiplier = 1, level = 1;
+    private int waveEndLives = 25, waveEndCash = 500;
+    private boolean waveInProgress = false, horizontal = true;
+    private Path path;
+    private SpawnScheduler spawnScheduler;
+    private final SlicerSet liveSlicers = new SlicerSet();
+    private final Rectangle gameScreen = new Rectangle(0, 100, WIDTH, HEIGHT - 125);
+    private List<Tower> towers = new ArrayList<Tower>();
+    private final SlicerTrack slicerTrack = new SlicerTrack();
+
+    /**
+     * @param wavesFile: the filename of the file that contains wave information
+     */
+    public GameSimulation(String wavesFile) {
+        this(wavesFile, 1, new Random().nextLong());
+    }
+
+    /**
+     * @param wavesFile: the filename of the file that contains wave information
+     * @param level: the level the game starts on
+     * @param seed: the seed of the random number generator used by the towers
+     * @throws IllegalArgumentException if the waves file can't be loaded
+     */
+    public GameSimulation(String wavesFile, int level, long seed) {
+        this.waves = WaveTable.open(wavesFile);
+        this.seed = seed;
+        this.random = new GameRandom(seed);
+
+        //status is initially awaiting start because that is how the game begins
+        this.status.push("Awaiting Start");
+
+        //loading the map and path of the starting level
+        this.level = level;
+        this.loadLevel(level);
+    }
+
+    /**
+     * helper method to load the map and path of a level (the waves are the same for every level and are read from the table when they start)
+     * the map and path were usually built on the LevelLoader's thread while the level before was played, so this only swaps them in
+     * @param level: the level to load
+     * @throws IllegalArgumentException if there is no map for the level
+     */
+    private void loadLevel(int level){
+        String tmxFile = "res/levels/" + level + ".tmx";
+        this.map = LevelLoader.getMap(tmxFile);
+        this.path = LevelLoader.get(tmxFile + "#path", loadPath(tmxFile, this.gameScreen));
+        //a new level has no towers yet (whoever loads a level with towers adds them with setTowers)
+        this.placement = new PlacementMap(this.map, this.gameScreen);
+        this.liveSlicers.clear();
+
+        //preparing the next level while this one is played (a level that doesn't exist only fails once it is loaded)
+        String nextTmxFile = "res/levels/" + (level + 1) + ".tmx";
+        LevelLoader.preloadMap(nextTmxFile);
+        LevelLoader.preload(nextTmxFile + "#path", loadPath(nextTmxFile, this.gameScreen));
+    }
+
+    /**
+     * helper method to make the LevelLoader's load of a level's path (static so the load doesn't hold on to this simulation)
+     * the path is read from the PathCache, it is only generated from the map when the map has changed since it was cached
+     * @param tmxFile: the path of the level's tmx file
+     * @param gameScreen: the bounding box of the game screen the path is generated for
+     */
+    private static Callable<Path> loadPath(final String tmxFile, final Rectangle gameScreen){
+        return new Callable<Path>() {
+            @Override
+            public Path call() {
+                return PathCache.load(tmxFile, gameScreen);
+            }
+        };
+    }
+
+    /**
+     * method called when the user presses S
+     * starts the current wave, or restarts the game if the player has won
+     */
+    public void startWave(){
+        //if the wave is not -1 and no wave is in progress then we need to start sending out slicers for the current wave
+        if(this.wave != -1 && !this.waveInProgress) {
+
+            //if lives equals 0 then the player died and wants to restart the game so we must reset the lives
+            if(this.lives == 0){
+                this.lives = 25;
+            }
+
+            this.waveInProgress = true;
+
+            //queueing the slicers of the wave on the spawn timeline, they join the live slicers as their spawn delays pass
+            //only this wave's slicers are created, so eliminated slicers aren't kept alive until the level ends and a restart needs no reloading
+            this.spawnScheduler = new SpawnScheduler(this.waves.loadWave(this.wave));
+            this.liveSlicers.clear();
+
+            //if the player is currently placing a tower we will push Wave In Progress below it in the stack
+            //this way when the user is no longer placing a tower, wave in progress will be displayed
+            if(this.status.peek().equals("Placing")){
+                this.status.pop();
+                this.status.push("Wave In Progress");
+                this.status.push("Placing");
+            }
+            //otherwise we just update the status to be wave in progress
+            else {
+                this.status.push("Wave In Progress");
+            }
+        }
+        else if(this.wave == -1){
+            resetState();
+            this.lives = 25;
+        }
+    }
+
+    /**
+     * method called when the user presses L, increases the speed of the game while a wave is in progress
+     */
+    public void increaseTimescale(){
+        if(this.waveInProgress){
+            this.timescaleMultiplier++;
+        }
+    }
+
+    /**
+     * method called when the user presses K, decreases the speed of the game while a wave is in progress as long as the speed is not already 1
+     */
+    public void decreaseTimescale(){
+        if(this.waveInProgress && this.timescaleMultiplier != 1){
+            this.timescaleMultiplier--;
+        }
+    }
+
+    /**
+     * method called when the user starts placing (buying) a tower
+     */
+    public void startPlacing(){
+        this.status.push("Placing");
+    }
+
+    /**
+     * method called when the user stops placing a tower (they placed it or cancelled)
+     */
+    public void stopPlacing(){
+        this.status.remove("Placing");
+    }
+
+    /**
+     * method to check whether a tower can be placed at a position
+     * it also points an airsupport tower in the direction it would fly if it were placed
+     * the blocked tiles, the panels and the placed towers are looked up in the level's PlacementMap (a bit per pixel)
+     * instead of checking the map and every tower's bounding box, so the check costs the same however many towers there are
+     * @param tower: the tower that is being placed
+     * @param position: the Point the tower would be placed at
+     * @return a boolean indicating whether the position is valid for placing the tower
+     */
+    public boolean canPlaceTower(Tower tower, Point position){
+        return this.placement.isOpen(position.x, position.y) && !this.intersectsTower(tower, position);
+    }
+
+    /**
+     * method to place a tower at a position (the position should have been checked with canPlaceTower)
+     * deducts the price of the tower from the cash and adds it to the towers list
+     * @param tower: the tower to be placed
+     * @param position: the Point the tower is placed at
+     */
+    public void placeTower(Tower tower, Point position){
+        //if the tower is airsupport, we need to place it horizontally or vertically
+        //otherwise we just place it at the position
+        switch(tower.getType()){
+            case "airsupport":
+                //if the tower is to be placed horizontally we place it on the x axis
+                if(this.horizontal){
+                    tower.setLocation(new Point(0, position.y));
+                    tower.setDirection(Math.PI/2);
+                }
+                //if the tower is to be placed vertically we place it on the y axis
+                else{
+                    tower.setLocation(new Point(position.x, 100));
+                    tower.setDirection(Math.PI);
+                }
+                this.horizontal = !this.horizontal;
+                break;
+            default:
+                tower.setLocation(position);
+        }
+
+        //after the tower has been placed we deduct the price from the cash and add the tower to the towers list
+        tower.onPlaced(this.random, this.path);
+        this.cash -= tower.getPrice();
+        this.towers.add(tower);
+        this.placement.addTower(tower);
+    }
+
+    /**
+     * helper method used in the canPlaceTower method to detect whether a position intersects with a current tower
+     * @param tower: the tower that is being placed
+     * @param position: the Point the tower would be placed at
+     * @return a boolean indicating whether the position is valid for placing a tower (false) or not (true)
+     */
+    private boolean intersectsTower(Tower tower, Point position){
+        switch(tower.getType()){
+            case "airsupport":
+                //airsupport is checked at the point it would be placed at (the left or top edge of the game screen)
+                if(this.horizontal){
+                    if(tower.getDirection() != Math.PI/2)
+                        tower.setDirection(Math.PI/2);
+                    return this.placement.hasTower(0, position.y);
+                }
+                else{
+                    if(tower.getDirection() != Math.PI)
+                        tower.setDirection(Math.PI);
+                    return this.placement.hasTower(position.x, 100);
+                }
+            default:
+                return this.placement.hasTower(position.x, position.y);
+        }
+    }
+
+    /**
+     * method to advance the game by one logic tick (1/TICK_RATE seconds of game time at 1x)
+     * the game's logic is run once for each unit of the timescaleMultiplier, so a fast-forwarded tick has exactly the same
+     * results as that many ticks at 1x (slicers, projectiles and detonation timers never skip past anything)
+     */
+    public void tick(){
+        this.ticks++;
+
+        //remembering where everything was at the start of the tick so the renderer can interpolate between ticks
+        this.savePositions();
+
+        //endWave resets the timescaleMultiplier to 1 so the steps left in the frame stop when a wave ends
+        for(int step = 0; step < this.timescaleMultiplier; step++){
+            this.step();
+        }
+    }
+
+    /**
+     * method to advance the game's logic by one 1x frame: moves the slicers, ends the wave when it is done, and lets the towers attack
+     */
+    private void step(){
+        //if a wave is in progress then we move the slicers
+        if(this.waveInProgress) {
+
+            //moving the slicers, the updateSlicers() method returns a boolean that indicates whether the wave is done
+            boolean waveDone = updateSlicers();
+
+            //updating the number of framesPassed
+            this.framesPassed++;
+
+            //if the wave is done = true => the game play stops
+            if(waveDone){
+                endWave();
+            }
+        }
+
+        //calling the updateStatus method to handle status changes
+        updateStatus();
+
+        //if the wave is still active then we also need to call the towers attack methods
+        if(this.waveInProgress){
+            updateTowers();
+        }
+    }
+
+    /**
+     * method to advance the game by a number of ticks
+     * @param ticks: the number of ticks to advance the game by
+     */
+    public void tick(int ticks){
+        for(int i = 0; i < ticks; i++){
+            tick();
+        }
+    }
+
+    /**
+     * helper method to save the current position of every slicer, tower and ammo as its previous position
+     */
+    private void savePositions(){
+        for(int i = 0; i < this.liveSlicers.size(); i++){
+            this.liveSlicers.get(i).savePosition();
+        }
+        for(int i = 0; i < this.towers.size(); i++){
+            Tower t = this.towers.get(i);
+            t.savePosition();
+            for(int j = 0; j < t.getAmmo().size(); j++){
+                t.getAmmo().get(j).savePosition();
+            }
+        }
+    }
+
+    /**
+     * method to spawn and move the slicers of the current wave
+     * only the slicers that are due to spawn and the live slicers are looked at, so a frame's cost follows the number of slicers on the path
+     * @return: a boolean indicating whether the wave is complete (all slicers have been eliminated or finished the path
+     */
+    private boolean updateSlicers() {
+        //moving the slicers whose spawn delay has passed onto the end of the live slicers (they start moving this frame)
+        this.spawnScheduler.release(this.framesPassed, this.liveSlicers);
+
+        //slicers that are dead/finished are swap-removed from the live slicers (the last slicer takes their slot, so i isn't advanced)
+        //the size is read every iteration because the children of eliminated slicers are added to the end and moved this frame
+        int i = 0;
+        while(i < this.liveSlicers.size()){
+            Slicer s = this.liveSlicers.get(i);
+
+            //if the slicer is not dead/finished the path (index != -1) then we move the slicer and keep it
+            if(s.getLocationIndex() != -1){
+                s.move(1, this.path);
+                i++;
+                continue;
+            }
+
+            //if health is greater than 0 and spawnDelay is -1 then the slicer has completed the path and not been eliminated
+            if(s.getHealth() > 0 && s.getSpawnDelayF() == -1){
+                //we deduct the penalty from the number of lives
+                this.lives -= s.getPenalty();
+
+                //if the lives is less than or equal to 0 after the deduction we set the lives to 0 and return true to indicate the wave is done and the player has lost
+                if(this.lives <= 0){
+                    this.lives = 0;
+                    return true;
+                }
+            }
+            //if health is 0 then the slicer has been eliminated so we must add its children to the live slicers and add its reward to our cash
+            else if(s.getHealth() == 0){
+                //an indexed loop so no iterator is allocated for the children
+                List<Slicer> children = s.getChildren();
+                for(int c = 0; c < children.size(); c++){
+                    this.liveSlicers.add(children.get(c));
+                }
+                this.cash += s.getReward();
+            }
+            this.liveSlicers.removeSlot(i);
+        }
+
+        //the wave is done when every slicer has spawned and there are no slicers left on the path
+        boolean waveDone = this.liveSlicers.isEmpty() && this.spawnScheduler.isExhausted();
+        if(waveDone){
+            this.cash += 150 + this.wave*100;
+        }
+        return waveDone;
+    }
+
+    /**
+     * method called when the current wave is done, loads the next wave (or level) or resets the game if the player lost
+     */
+    private void endWave(){
+        //keeping the result of the wave, finishing the last wave of a level loads the next level which resets the lives and cash
+        this.waveEndLives = this.lives;
+        this.waveEndCash = this.cash;
+
+        //if the lives = 0 then we reset the game, but keep the lives at 0
+        //the user will have to press s to start from the beginning again (and then lives will be reset to 25)
+        if(this.lives == 0){
+            resetState();
+        }
+        //if the user is still alive we need to load the next wave
+        else {
+            this.wave++;
+            //removing all ammo from towers (it is kept for the towers to fire again) and removing airsupport
+            for(Tower t: this.towers){
+                t.clearAmmo();
+
+                //any active airsupport from the previous wave shouldn't be drawn anymore so we take it out of play
+                if(t.getType().equals("airsupport")){
+                    t.removeFromPlay();
+                }
+            }
+            //if we have run all waves, then we increase the level and try to load the next map
+            if (this.wave > this.waves.getWaveCount()) {
+                this.level++;
+                //try to open a map for the corresponding level, if it doesn't exist then the player has won the game
+                try {
+                    this.loadLevel(this.level);
+                    this.towers = new ArrayList<Tower>();
+                    this.wave = 1;
+                    this.cash = 500;
+                    //I originally had it so the lives would not reset after a level is finished but the video had it this way so I changed it
+                    this.lives = 25;
+                } catch (Exception e) {
+                    //setting the wave to -1 indicates that the player has won the game
+                    this.wave = -1;
+                }
+            }
+        }
+        this.waveInProgress = false;
+        this.liveSlicers.clear();
+        this.timescaleMultiplier = 1;
+        this.framesPassed = 0;
+    }
+
+    /**
+     * method to let all the towers on the game screen attack the slicers of the current wave
+     */
+    private void updateTowers(){
+        //the towers and their ammo are updated for a single 1x step (the timescale is handled by running more steps)
+        //sorting the current wave's targetable slicers along the path once so every tower can search only the slicers on the part of the path it covers
+        this.slicerTrack.rebuild(this.liveSlicers);
+
+        //the towers that stay in the game are compacted to the front of the list (keeping their order)
+        int kept = 0;
+        for(int i = 0; i < this.towers.size(); i++){
+            Tower t = this.towers.get(i);
+
+            //for airsupport the attack method also moves the airsupport across the screen
+            //if the tower is in play and on the game screen we will call its attack method
+            //this check is used to make sure airsupport don't continue to attack when they're off the screen
+            if(t.intersects(this.gameScreen)) {
+                t.attack(this.liveSlicers, this.slicerTrack, 1);
+            }
+            //this condition will only be triggered for airsupport since tanks will never be out of play or outside the game screen
+            else {
+                //we take the tower out of play because this will prevent any new explosives from being dropped in the attack method
+                t.removeFromPlay();
+
+                //if there are no more explosives left, we remove the tower from the game
+                if(t.getAmmo().size() == 0){
+                    continue;
+                }
+                //otherwise we continue to attack with the remaining explosives
+                t.attack(this.liveSlicers, this.slicerTrack, 1);
+            }
+            this.towers.set(kept++, t);
+        }
+        while(this.towers.size() > kept){
+            this.towers.remove(this.towers.size() - 1);
+        }
+    }
+
+    /**
+     * method to update the status of the game
+     */
+    private void updateStatus(){
+
+        //when the wave is done (waveInProgress == false) and the previous status was Wave In Progress => we need to make the status Awaiting Start
+        //(waveInProgress is checked first so a tick in the middle of a wave doesn't call the synchronized Stack.peek, which the JIT only
+        //compiles after tens of thousands of ticks and which allocates on the game's thread when it does)
+        if(this.waveInProgress == false && this.status.peek().equals("Wave In Progress")){
+            this.status.pop();
+            if(this.status.peek().equals("Awaiting Start") == false){
+                this.status.removeAllElements();
+                this.status.push("Awaiting Start");
+            }
+        }
+
+        //if the wave is -1 then the player has won the game, winner will be displayed
+        if(this.wave == -1){
+            if(this.status.peek().equals("Winner") == false) {
+                this.status.removeAllElements();
+                this.status.push("Winner");
+            }
+        }
+    }
+
+    /**
+     * method to reset the game state (we don't reset the lives because lives will be reset after the user restarts the game
+     */
+    private void resetState() {
+        this.level = 1;
+        this.loadLevel(this.level);
+        this.towers = new ArrayList<Tower>();
+        this.wave = 1;
+        this.cash = 500;
+        this.status.removeAllElements();
+        this.status.push("Awaiting Start");
+    }
+
+    /**
+     * method to write the whole state of the game to a snapshot that restoreState can go back to
+     * only the state the game's rules change is written: the map, path, waves and each tower's coverage of the path are
+     * loaded or worked out again on restore, and slicers that haven't spawned are created again from the waves table
+     * @param out: the buffer the state is written to (from its position)
+     * @throws java.nio.BufferOverflowException if the state doesn't fit in the buffer's remaining space
+     */
+    public void saveState(ByteBuffer out){
+        out.putLong(this.ticks).putInt(this.level).putInt(this.wave).putInt(this.lives).putInt(this.cash);
+        out.putInt(this.framesPassed).putInt(this.timescaleMultiplier);
+        out.put((byte)(this.waveInProgress ? 1 : 0)).put((byte)(this.horizontal ? 1 : 0));
+        out.putLong(this.random.getState());
+
+        out.putInt(this.status.size());
+        for(int i = 0; i < this.status.size(); i++){
+            out.put((byte)statusIndex(this.status.get(i)));
+        }
+
+        //the slicers that haven't spawned are the ones after the cursor of the wave's timeline
+        out.putInt(this.waveInProgress ? this.spawnScheduler.getCursor() : -1);
+        out.putInt(this.liveSlicers.size());
+        for(int i = 0; i < this.liveSlicers.size(); i++){
+            this.liveSlicers.get(i).save(out);
+        }
+        out.putInt(this.towers.size());
+        for(int i = 0; i < this.towers.size(); i++){
+            this.towers.get(i).save(out);
+        }
+    }
+
+    /**
+     * method to go back to a snapshot written by saveState (of this game or of another game created with the same waves file)
+     * @param in: the buffer the state is read from (from its position)
+     */
+    public void restoreState(ByteBuffer in){
+        this.ticks = in.getLong();
+        int level = in.getInt();
+        this.wave = in.getInt();
+        //once the player has won there is no map for the level, the map of the last level is kept like endWave does
+        if(level != this.level && this.wave != -1){
+            this.loadLevel(level);
+        }
+        this.level = level;
+        this.lives = in.getInt();
+        this.cash = in.getInt();
+        this.framesPassed = in.getInt();
+        this.timescaleMultiplier = in.getInt();
+        this.waveInProgress = in.get() == 1;
+        this.horizontal = in.get() == 1;
+        this.random.setState(in.getLong());
+
+        this.status.removeAllElements();
+        int statusCount = in.getInt();
+        for(int i = 0; i < statusCount; i++){
+            this.status.push(STATUSES[in.get()]);
+        }
+
+        int cursor = in.getInt();
+        this.spawnScheduler = null;
+        if(cursor >= 0){
+            this.spawnScheduler = new SpawnScheduler(this.waves.loadWave(this.wave));
+            this.spawnScheduler.skip(cursor);
+        }
+        this.liveSlicers.clear();
+        int slicerCount = in.getInt();
+        for(int i = 0; i < slicerCount; i++){
+            this.liveSlicers.add(Slicer.load(in));
+        }
+        this.towers = new ArrayList<Tower>();
+        int towerCount = in.getInt();
+        for(int i = 0; i < towerCount; i++){
+            this.towers.add(Tower.load(in, this.random, this.path, this.liveSlicers));
+        }
+        this.placement.setTowers(this.towers);
+    }
+
+    /**
+     * helper method to find the index of a status in STATUSES
+     */
+    private static int statusIndex(String status){
+        for(int i = 0; i < STATUSES.length; i++){
+            if(STATUSES[i].equals(status)){
+                return i;
+            }
+        }
+        throw new IllegalStateException("unknown status " + status);
+    }
+
+    /**
+     * method to hash the state of the game that its rules change (the counters, the live slicers and the towers)
+     * two games that were given the same seed and inputs have the same checksum on every tick, so replays compare them to find where two builds diverge
+     * @return the checksum of the current state
+     */
+    public long getChecksum(){
+        long checksum = this.ticks;
+        checksum = 31*checksum + this.level;
+        checksum = 31*checksum + this.wave;
+        checksum = 31*checksum + this.lives;
+        checksum = 31*checksum + this.cash;
+        checksum = 31*checksum + this.framesPassed;
+        checksum = 31*checksum + this.timescaleMultiplier;
+        checksum = 31*checksum + (this.waveInProgress ? 1 : 0);
+        checksum = 31*checksum + (this.horizontal ? 1 : 0);
+        for(int i = 0; i < this.liveSlicers.size(); i++){
+            Slicer s = this.liveSlicers.get(i);
+            checksum = 31*checksum + Double.doubleToLongBits(s.getX());
+            checksum = 31*checksum + Double.doubleToLongBits(s.getY());
+            checksum = 31*checksum + Double.doubleToLongBits(s.getHealth());
+        }
+        for(int i = 0; i < this.towers.size(); i++){
+            Tower t = this.towers.get(i);
+            checksum = 31*checksum + Double.doubleToLongBits(t.getX());
+            checksum = 31*checksum + Double.doubleToLongBits(t.getY());
+            checksum = 31*checksum + t.getAmmo().size();
+        }
+        return checksum;
+    }
+
+    //Getters
+
+    /**
+     * @return the slicers of the current wave that are on the path (empty when no wave is in progress)
+     */
+    public List<Slicer> getCurrentWaveSlicers(){
+        return this.liveSlicers;
+    }
+
+    /**
+     * @return the seed of the game's random number generator
+     */
+    public long getSeed(){ return this.seed; }
+
+    /**
+     * @return the number of ticks run since the game was created
+     */
+    public long getTicks(){ return this.ticks; }
+
+    /**
+     * @return a list of all the towers currently in the game
+     */
+    public List<Tower> getTowers(){ return this.towers; }
+
+    /**
+     * @return the current status of the game
+     */
+    public String getStatus(){ return this.status.peek(); }
+
+    /**
+     * @return the number of lives the player has remaining
+     */
+    public int getLives(){ return this.lives; }
+
+    /**
+     * @return the wave the player is on (-1 if the player has won the game)
+     */
+    public int getWave(){ return this.wave; }
+
+    /**
+     * @return the number of waves in the current level
+     */
+    public int getWaveCount(){ return this.waves.getWaveCount(); }
+
+    /**
+     * @return the cash available to the player
+     */
+    public int getCash(){ return this.cash; }
+
+    /**
+     * @return the lives the player had when the last wave ended (0 if the player lost it)
+     */
+    public int getWaveEndLives(){ return this.waveEndLives; }
+
+    /**
+     * @return the cash the player had when the last wave ended (including the end of wave bonus)
+     */
+    public int getWaveEndCash(){ return this.waveEndCash; }
+
+    /**
+     * @return the level the player is on
+     */
+    public int getLevel(){ return this.level; }
+
+    /**
+     * @return the current timescaleMultiplier
+     */
+    public int getTimescaleMultiplier(){ return this.timescaleMultiplier; }
+
+    /**
+     * @return whether a wave is currently in progress
+     */
+    public boolean isWaveInProgress(){ return this.waveInProgress; }
+
+    /**
+     * @return whether the next airsupport placed will fly horizontally
+     */
+    public boolean isHorizontal(){ return this.horizontal; }
+
+    /**
+     * @return the bounding box of the game screen (excluding the buy panel and status panel)
+     */
+    public Rectangle getGameScreen(){ return this.gameScreen; }
+}
@@ -0,0 +1,162 @@
+import bagel.DrawOptions;
+import bagel.Font;
+import bagel.Image;
+import bagel.util.Colour;
+
+/**
+ * Hud class is the retained heads up display of ShadowDefend (the buy panel and the status panel)
+ * the panel images, fonts, DrawOptions and text are built once and a piece of text is only rebuilt when the value it displays changes
+ * the buy panel and its purchase items never change so they are composed into one texture (see StaticLayers)
+ */
+public class Hud {
+
+    //static attributes
+    //the images of the purchase items and the top left corner they are drawn at in the buy panel
+    private static final String[] PURCHASE_ITEMS = {"tank", "supertank", "airsupport"};
+    private static final int[] PURCHASE_ITEM_LEFTS = {32, 152, 272};
+    private static final int PURCHASE_ITEM_TOP = 8;
+    //the prices of the purchase items, in the same order as the purchase items in the buy panel
+    private static final int[] PRICES = {250, 600, 500};
+    private static final String[] PRICE_TEXT = {"$250", "$600", "$500"};
+    private static final String KEY_BINDS = "Key Binds:\nS - Start Wave\nL - Increase Timescale\nK - Decrease Timescale";
+
+    /*
+    width, height: the dimensions of the window the hud is drawn on
+    buyPanel: the background of the buy panel with the purchase items (tank, supertank, airsupport) drawn on it
+    statusPanel: the background image of the status panel
+    defaultTextFont: the font used in the status panel and for the prices of towers and the key binds in the buy panel
+    cashFont: the font used for the available cash
+    affordable, unaffordable: the DrawOptions used to colour a price depending on whether the user can buy the item
+    normalSpeed, fastSpeed: the DrawOptions used to colour the timescale depending on whether the game is sped up
+    cash, lives, wave, timescale, status, sWasPressed: the values the cached text was last built from
+    cashText, waveText, timescaleText, statusText, livesText, promptText: the cached text drawn on the panels (promptText is null when no prompt is shown)
+     */
+    private final int width, height;
+    private final Image buyPanel, statusPanel;
+    private final Font defaultTextFont = new Font("res/fonts/DejaVuSans-Bold.ttf", 16),
+            cashFont = new Font("res/fonts/DejaVuSans-Bold.ttf", 36);
+    private final DrawOptions affordable = new DrawOptions().setBlendColour(Colour.GREEN),
+            unaffordable = new DrawOptions().setBlendColour(Colour.RED),
+            normalSpeed = new DrawOptions().setBlendColour(Colour.WHITE),
+            fastSpeed = new DrawOptions().setBlendColour(Colour.GREEN);
+    private int cash = Integer.MIN_VALUE, lives = Integer.MIN_VALUE, wave = Integer.MIN_VALUE, timescale = Integer.MIN_VALUE;
+    private String status;
+    private boolean sWasPressed;
+    private String cashText, waveText, timescaleText, statusText, livesText, promptText;
+
+    /**
+     * @param width: the width of the window
+     * @param height: the height of the window
+     */
+    public Hud(int width, int height){
+        this.width = width;
+        this.height = height;
+        Image panel = AssetRegistry.getImageByName("buypanel");
+        this.buyPanel = StaticLayers.getImageLayer("buypanel", (int)panel.getWidth(), (int)panel.getHeight(),
+                new String[]{"buypanel", PURCHASE_ITEMS[0], PURCHASE_ITEMS[1], PURCHASE_ITEMS[2]},
+                new int[]{0, PURCHASE_ITEM_LEFTS[0], PURCHASE_ITEM_LEFTS[1], PURCHASE_ITEM_LEFTS[2]},
+                new int[]{0, PURCHASE_ITEM_TOP, PURCHASE_ITEM_TOP, PURCHASE_ITEM_TOP});
+        this.statusPanel = AssetRegistry.getImageByName("statuspanel");
+    }
+
+    /**
+     * method to update the values displayed by the hud, the text of a value is only rebuilt if the value changed since the last call
+     * @param cash: the cash available to the user
+     * @param lives: the number of lives the user has remaining
+     * @param wave: the wave the user is on (-1 if the user beat the game)
+     * @param timescale: the current timescaleMultiplier
+     * @param status: the current status of the game
+     * @param sWasPressed: whether a wave is currently in progress
+     */
+    public void update(int cash, int lives, int wave, int timescale, String status, boolean sWasPressed){
+        //the prompt depends on the lives and wave too, so whether it changed is worked out before they are assigned below
+        boolean promptChanged = lives != this.lives || wave != this.wave || sWasPressed != this.sWasPressed;
+
+        if(cash != this.cash){
+            this.cash = cash;
+            this.cashText = String.format("$%,d", cash);
+        }
+        if(timescale != this.timescale){
+            this.timescale = timescale;
+            this.timescaleText = "Time Scale: " + timescale;
+        }
+        if(!status.equals(this.status)){
+            this.status = status;
+            this.statusText = "Status: " + status;
+        }
+        if(wave != this.wave){
+            this.wave = wave;
+            this.waveText = "Wave: " + (wave == -1 ? "N/A" : wave);
+        }
+        if(lives != this.lives){
+            this.lives = lives;
+            this.livesText = "Lives: " + lives;
+        }
+        if(promptChanged){
+            this.updatePrompt(lives, wave, sWasPressed);
+        }
+    }
+
+    /**
+     * method to draw the buy panel on the screen
+     */
+    public void drawBuyPanel(){
+        buyPanel.drawFromTopLeft(0,0);
+
+        //drawing the prices of the purchase items (red if the user can't afford the item, green otherwise)
+        for(int i = 0; i < PRICES.length; i++){
+            this.defaultTextFont.drawString(PRICE_TEXT[i], 44 + i*120, 85,
+                    this.cash < PRICES[i] ? this.unaffordable : this.affordable);
+        }
+
+        //drawing the available cash
+        this.cashFont.drawString(this.cashText, this.width - 200, 65);
+
+        //drawing the key binds
+        this.defaultTextFont.drawString(KEY_BINDS, this.width/2 - 30, 15);
+
+        //if there is a prompt then the user has either beat the game or needs to press s to start the next wave
+        if(this.promptText != null){
+            this.defaultTextFont.drawString(this.promptText, this.width/2 - 30, 85);
+        }
+    }
+
+    /**
+     * method to draw the status panel on the screen
+     */
+    public void drawStatusPanel(){
+        statusPanel.drawFromTopLeft(0, this.height - 25);
+
+        //drawing the wave, timescale, current status, and lives remaining
+        this.defaultTextFont.drawString(this.waveText, 6, this.height - 6);
+        this.defaultTextFont.drawString(this.timescaleText, 256, this.height - 6,
+                this.timescale <= 1 ? this.normalSpeed : this.fastSpeed);
+        this.defaultTextFont.drawString(this.statusText, 460, this.height - 6);
+        this.defaultTextFont.drawString(this.livesText, this.width - 100, this.height - 6);
+    }
+
+    /**
+     * helper method to rebuild the prompt shown in the buy panel when no wave is in progress
+     * @param lives: the number of lives the user has remaining
+     * @param wave: the wave the user is on (-1 if the user beat the game)
+     * @param sWasPressed: whether a wave is currently in progress
+     */
+    private void updatePrompt(int lives, int wave, boolean sWasPressed){
+        this.sWasPressed = sWasPressed;
+
+        if(sWasPressed){
+            this.promptText = null;
+        }
+        else if(lives == 0){
+            this.promptText = "You're out of lives. Press S to Restart";
+        }
+        //if the wave is not -1 then the wave exists
+        else if(wave != -1){
+            this.promptText = "Press S to Start Wave " + wave;
+        }
+        //if the wave is -1 then the player beat the game
+        else{
+            this.promptText = "You Won! Press S to Restart";
+        }
+    }
+}
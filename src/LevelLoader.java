@@ -0,0 +1,101 @@
+import java.util.concurrent.*;
+
+/**
+ * LevelLoader class prepares the parts of a level that take a while to build (its map, path and composed map image) on a background thread
+ * a level is preloaded while the level before it is played, so moving to it only swaps in what was already built instead of
+ * parsing files and building the path on the thread that runs the game
+ * everything it loads is immutable and shared by every GameSimulation and GameRenderer in the process, so a restart reloads nothing
+ */
+public final class LevelLoader {
+
+    //static attributes
+    //the thread loads are run on, a daemon thread so a load that is still running never keeps the game from exiting
+    private static final ExecutorService loader = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable load) {
+            Thread thread = new Thread(load, "level-loader");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+
+    /*
+    loads: every load that was requested keyed by what it loads (e.g. the tmx file of a map), the failed ones keep their exception
+     */
+    private static final ConcurrentMap<String, FutureTask<?>> loads = new ConcurrentHashMap<String, FutureTask<?>>();
+
+    private LevelLoader(){}
+
+    /**
+     * method to start a load on the background thread unless it has already been requested
+     * @param key: what is loaded (the same key must always be loaded by the same load)
+     * @param load: builds what is loaded, it must not touch any state of the game (it isn't run on the game's thread)
+     */
+    public static <T> void preload(String key, Callable<T> load){
+        FutureTask<T> task = new FutureTask<T>(load);
+        if(loads.putIfAbsent(key, task) == null){
+            loader.execute(task);
+        }
+    }
+
+    /**
+     * method to get something that was loaded, waiting for it if it is being loaded and loading it on this thread if it hasn't started yet
+     * @param key: what is loaded (the same key must always be loaded by the same load)
+     * @param load: builds what is loaded if it wasn't preloaded
+     * @return what was loaded
+     * @throws RuntimeException the exception the load threw (e.g. the IllegalArgumentException of a level that has no map)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T get(String key, Callable<T> load){
+        FutureTask<?> task = new FutureTask<T>(load);
+        FutureTask<?> existing = loads.putIfAbsent(key, task);
+        if(existing != null){
+            task = existing;
+        }
+        //running a task that has already started (or finished) does nothing, so this only loads on this thread if the loader hasn't got to it
+        task.run();
+        try{
+            return (T)task.get();
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for " + key, e);
+        }
+        catch(ExecutionException e){
+            if(e.getCause() instanceof RuntimeException){
+                throw (RuntimeException)e.getCause();
+            }
+            throw new IllegalStateException("could not load " + key, e.getCause());
+        }
+    }
+
+    /**
+     * @param tmxFile: the path of a level's tmx file
+     * @return the map of the level, loaded once and shared
+     * @throws IllegalArgumentException if the file doesn't exist or can't be parsed
+     */
+    public static LevelMap getMap(String tmxFile){
+        return get(tmxFile, loadMap(tmxFile));
+    }
+
+    /**
+     * method to start loading the map of a level on the background thread
+     * @param tmxFile: the path of a level's tmx file (a missing file isn't an error until the map is requested with getMap)
+     */
+    public static void preloadMap(String tmxFile){
+        preload(tmxFile, loadMap(tmxFile));
+    }
+
+    /**
+     * helper method to make the load of a map (static so the load doesn't hold on to whoever requested it)
+     */
+    private static Callable<LevelMap> loadMap(final String tmxFile){
+        return new Callable<LevelMap>() {
+            @Override
+            public LevelMap call() {
+                return new LevelMap(tmxFile);
+            }
+        };
+    }
+}
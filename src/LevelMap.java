@@ -0,0 +1,193 @@
+import bagel.util.Point;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LevelMap class is the game logic's view of a tmx map: its tiles, the properties of those tiles, and its polylines
+ * unlike bagel's TiledMap it doesn't load any textures so it can be used without a window (e.g. in a headless GameSimulation)
+ */
+public class LevelMap {
+
+    /*
+    width, height: the size of the map in tiles
+    tileWidth, tileHeight: the size of each tile in px
+    tiles: the local tile id (in the tileset) of each tile of the first layer in row-major order, -1 for an empty tile
+    tileProperties: the properties of each tile in the tileset keyed by local tile id
+    tilesetImage: the path of the tileset's image
+    tilesetColumns: the number of tiles in each row of the tileset's image
+    tilesetMargin, tilesetSpacing: the px around the tiles of the tileset's image and between them
+    polylines: all the polylines in the map's object groups (with the object's offset applied)
+     */
+    private final int width, height, tileWidth, tileHeight;
+    private final int[] tiles;
+    private final Map<Integer, Map<String, String>> tileProperties = new HashMap<Integer, Map<String, String>>();
+    private final String tilesetImage;
+    private final int tilesetColumns, tilesetMargin, tilesetSpacing;
+    private final List<List<Point>> polylines = new ArrayList<List<Point>>();
+
+    /**
+     * @param filename: the path of the tmx file
+     * @throws IllegalArgumentException if the file doesn't exist or can't be parsed
+     */
+    public LevelMap(String filename) {
+        File file = new File(filename);
+        try{
+            Element map = parse(file).getDocumentElement();
+            this.width = Integer.parseInt(map.getAttribute("width"));
+            this.height = Integer.parseInt(map.getAttribute("height"));
+            this.tileWidth = Integer.parseInt(map.getAttribute("tilewidth"));
+            this.tileHeight = Integer.parseInt(map.getAttribute("tileheight"));
+
+            //reading the tileset, the map references an external tsx file relative to the tmx file
+            Element tilesetRef = (Element) map.getElementsByTagName("tileset").item(0);
+            int firstGid = Integer.parseInt(tilesetRef.getAttribute("firstgid"));
+            File tsxFile = new File(file.getParentFile(), tilesetRef.getAttribute("source"));
+            Element tileset = parse(tsxFile).getDocumentElement();
+            this.tilesetColumns = Integer.parseInt(tileset.getAttribute("columns"));
+            this.tilesetMargin = tileset.hasAttribute("margin") ? Integer.parseInt(tileset.getAttribute("margin")) : 0;
+            this.tilesetSpacing = tileset.hasAttribute("spacing") ? Integer.parseInt(tileset.getAttribute("spacing")) : 0;
+            Element image = (Element) tileset.getElementsByTagName("image").item(0);
+            this.tilesetImage = new File(tsxFile.getParentFile(), image.getAttribute("source")).getPath();
+
+            NodeList tileNodes = tileset.getElementsByTagName("tile");
+            for(int i = 0; i < tileNodes.getLength(); i++){
+                Element tile = (Element) tileNodes.item(i);
+                Map<String, String> properties = new HashMap<String, String>();
+                NodeList propertyNodes = tile.getElementsByTagName("property");
+                for(int j = 0; j < propertyNodes.getLength(); j++){
+                    Element property = (Element) propertyNodes.item(j);
+                    properties.put(property.getAttribute("name"), property.getAttribute("value"));
+                }
+                this.tileProperties.put(Integer.parseInt(tile.getAttribute("id")), properties);
+            }
+
+            //reading the first layer's csv tile data, a gid of 0 is an empty tile
+            this.tiles = new int[this.width*this.height];
+            Element data = (Element) ((Element) map.getElementsByTagName("layer").item(0)).getElementsByTagName("data").item(0);
+            String[] gids = data.getTextContent().trim().split("\\s*,\\s*");
+            for(int i = 0; i < this.tiles.length; i++){
+                int gid = Integer.parseInt(gids[i]);
+                this.tiles[i] = gid == 0 ? -1 : gid - firstGid;
+            }
+
+            //reading the polylines, the points of a polyline are relative to the object they belong to
+            NodeList objects = map.getElementsByTagName("object");
+            for(int i = 0; i < objects.getLength(); i++){
+                Element object = (Element) objects.item(i);
+                NodeList polylineNodes = object.getElementsByTagName("polyline");
+                if(polylineNodes.getLength() == 0){
+                    continue;
+                }
+                double x = Double.parseDouble(object.getAttribute("x")), y = Double.parseDouble(object.getAttribute("y"));
+                List<Point> polyline = new ArrayList<Point>();
+                for(String point: ((Element) polylineNodes.item(0)).getAttribute("points").trim().split("\\s+")){
+                    String[] coords = point.split(",");
+                    polyline.add(new Point(x + Double.parseDouble(coords[0]), y + Double.parseDouble(coords[1])));
+                }
+                this.polylines.add(polyline);
+            }
+        }
+        catch(IllegalArgumentException e){
+            throw e;
+        }
+        catch(Exception e){
+            throw new IllegalArgumentException("Could not load map " + filename, e);
+        }
+    }
+
+    /**
+     * helper method to parse an xml file
+     * @param file: the xml file
+     * @return the parsed Document
+     * @throws Exception if the file doesn't exist or isn't valid xml
+     */
+    private static Document parse(File file) throws Exception {
+        if(!file.isFile()){
+            throw new IllegalArgumentException("No such map file " + file.getPath());
+        }
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file);
+    }
+
+    /**
+     * method equivalent to TiledMap.hasProperty, checks whether the tile at a pixel has a property
+     * @param x: the x coordinate in px
+     * @param y: the y coordinate in px
+     * @param property: the name of the property
+     * @return true if the tile at (x, y) has the property, false otherwise (or if (x, y) is outside the map)
+     */
+    public boolean hasProperty(int x, int y, String property){
+        int tile = this.getTile(x/this.tileWidth, y/this.tileHeight);
+        if(x < 0 || y < 0 || tile == -1){
+            return false;
+        }
+        Map<String, String> properties = this.tileProperties.get(tile);
+        return properties != null && properties.containsKey(property);
+    }
+
+    /**
+     * @param column: the column of the tile
+     * @param row: the row of the tile
+     * @return the local tile id of the tile at (column, row) or -1 if there is no tile there
+     */
+    public int getTile(int column, int row){
+        if(column < 0 || row < 0 || column >= this.width || row >= this.height){
+            return -1;
+        }
+        return this.tiles[row*this.width + column];
+    }
+
+    //Getters
+
+    /**
+     * @return the width of the map in tiles
+     */
+    public int getWidth() { return width; }
+
+    /**
+     * @return the height of the map in tiles
+     */
+    public int getHeight() { return height; }
+
+    /**
+     * @return the width of a tile in px
+     */
+    public int getTileWidth() { return tileWidth; }
+
+    /**
+     * @return the height of a tile in px
+     */
+    public int getTileHeight() { return tileHeight; }
+
+    /**
+     * @return the path of the tileset's image
+     */
+    public String getTilesetImage() { return tilesetImage; }
+
+    /**
+     * @return the number of tiles in each row of the tileset's image
+     */
+    public int getTilesetColumns() { return tilesetColumns; }
+
+    /**
+     * @return the px around the tiles of the tileset's image
+     */
+    public int getTilesetMargin() { return tilesetMargin; }
+
+    /**
+     * @return the px between the tiles of the tileset's image
+     */
+    public int getTilesetSpacing() { return tilesetSpacing; }
+
+    /**
+     * @return all the polylines in the map
+     */
+    public List<List<Point>> getAllPolylines() { return polylines; }
+}
@@ -1,7 +1,6 @@
-import bagel.Image;
-import bagel.util.Point;
+import java.nio.ByteBuffer;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Random;
 
 /**
  * PassiveTower class represents airsupport (towers that don't detect slicers, but attock randomly)
@@ -9,14 +8,15 @@ import java.util.concurrent.ThreadLocalRandom;
 public class PassiveTower extends Tower {
 
     //speed: how quickly the tower moves across the map
-    //drop time: the time in frames left before an explosive is dropped
+    //drop time: the time in ticks left before an explosive is dropped
+    //random: the random number generator of the game the tower was placed in, used to pick drop times
     private int speed, dropTime;
+    private Random random;
 
     /**
      * @param type: the type of passive tower (it will only ever be airsupport at this point but if more passive towers were added then the type would be needed)
      */
     public PassiveTower(String type) {
-        this.setImage(new Image("res/images/" + type + ".png"));
         this.setType(type);
         switch (type) {
             case "airsupport":
@@ -24,24 +24,41 @@ public class PassiveTower extends Tower {
                 this.speed = 5;
                 break;
         }
-        //generating a random drop time between 0 and 3 seconds (inclusive) which will correspond to an int between 0 and 180 frames
-        this.dropTime = ThreadLocalRandom.current().nextInt(0, 181);
     }
 
     /**
-     * attack method used to drop new explosives when drop time = 0, move the tower across the screen, and draw the tower's ammo on the screen
-     * @param slicers: a list of the slicers in the current wave, used to decide which slicer(s) to attack (passed to the draw ammo method)
+     * generates the first drop time once the tower is placed
+     * @param random: the random number generator of the GameSimulation the tower was placed in
+     * @param path: the path of the level the tower was placed in (unused, airsupport doesn't target slicers)
+     */
+    @Override
+    public void onPlaced(Random random, Path path) {
+        this.random = random;
+        //generating a random drop time between 0 and 3 seconds (inclusive) which will correspond to an int between 0 and 180 ticks
+        this.dropTime = random.nextInt(3*GameSimulation.TICK_RATE + 1);
+    }
+
+    /**
+     * attack method used to drop new explosives when drop time = 0, move the tower across the screen, and update the tower's ammo
+     * @param slicers: a list of the slicers in the current wave, used to decide which slicer(s) to attack (passed to the updateAmmo method)
+     * @param track: the SlicerTrack of the current wave's targetable slicers (unused, airsupport doesn't target slicers)
      * @param timeScaleMultiplier: the timeScaleMultiplier from ShadowDefend used to affect movement of towers
      */
     @Override
-    public void attack(List<Slicer> slicers, int timeScaleMultiplier) {
+    public void attack(List<Slicer> slicers, SlicerTrack track, int timeScaleMultiplier) {
 
-        //if the bounding is not null then the tower is on the game screen and can drop explosives
-        if(this.getBounding() != null){
+        //if the tower is in play then it is on the game screen and can drop explosives
+        if(this.isInPlay()){
             //if the dropTime is 0 then we need to drop a new explosive
             if(this.dropTime <= 0){
-                this.dropTime = ThreadLocalRandom.current().nextInt(0, 181);
-                this.getAmmo().add(new Explosive(this.getLocation()));
+                this.dropTime = this.random.nextInt(3*GameSimulation.TICK_RATE + 1);
+                //a passive tower only ever drops explosives so its spare ammo are all explosives
+                Explosive explosive = (Explosive)this.reuseAmmo();
+                if(explosive == null){
+                    explosive = new Explosive();
+                }
+                explosive.reset(this.getX(), this.getY());
+                this.getAmmo().add(explosive);
             }
             //otherwise we just decrement the drop time based on the timeScaleMultiplier from ShadowDefend
             else{
@@ -50,12 +67,45 @@ public class PassiveTower extends Tower {
 
             //moving the airsupport
             if (this.getDirection() == Math.PI / 2)
-                this.setLocation(new Point(this.getLocation().x + timeScaleMultiplier * this.speed, this.getLocation().y));
+                this.setPosition(this.getX() + timeScaleMultiplier * this.speed, this.getY());
             else
-                this.setLocation(new Point(this.getLocation().x, this.getLocation().y + timeScaleMultiplier * this.speed));
+                this.setPosition(this.getX(), this.getY() + timeScaleMultiplier * this.speed);
         }
 
-        //calling the drawAmmo method which will draw all of a Tower's ammo on the screen and inflict damage on nearby slicers when appropriate
-        this.drawAmmo(slicers, timeScaleMultiplier);
+        //calling the updateAmmo method which will update all of a Tower's ammo and inflict damage on nearby slicers when appropriate
+        this.updateAmmo(slicers, timeScaleMultiplier);
+    }
+
+    /**
+     * @return an explosive that hasn't been dropped
+     */
+    @Override
+    protected Ammo createAmmo() {
+        return new Explosive();
+    }
+
+    /**
+     * method to write the state of this tower to a snapshot
+     * @param out: the buffer the state is written to
+     */
+    @Override
+    public void save(ByteBuffer out) {
+        super.save(out);
+        out.putInt(this.dropTime);
+    }
+
+    /**
+     * method to set the state of this tower from a snapshot written by save
+     * the tower keeps the random number generator of the game it is restored in, no drop time is drawn because the saved one is used
+     * @param in: the buffer the state is read from
+     * @param random: the random number generator of the GameSimulation the tower is restored in
+     * @param path: the path of the level the tower is restored in (unused, airsupport doesn't target slicers)
+     * @param slicers: the live slicers of the restored game
+     */
+    @Override
+    protected void restore(ByteBuffer in, Random random, Path path, SlicerSet slicers) {
+        super.restore(in, random, path, slicers);
+        this.random = random;
+        this.dropTime = in.getInt();
     }
 }
@@ -1,19 +1,25 @@
 import bagel.util.Point;
 import bagel.util.Rectangle;
-import bagel.util.Vector2;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Path class represents the path along the polylines of a map and the corresponding direction angle in radians at each point
+ * the points are stored in parallel primitive arrays (index i of each array describes the ith point of the path)
  */
 public class Path {
-    //path: a list of all the points in the path (each point is 0.25px apart)
-    //pathAngle: a list of the direction angle at each point in the path
-    //the length of the path (and pathAngle) lists
+    //the number of points in a block of the path, each block's bounds let a whole block be skipped when it is far from something
+    public static final int BLOCK_POINTS = 64;
+
+    //pathX, pathY: the x and y coordinates of all the points in the path (each point is 0.25px apart)
+    //pathAngle: the direction angle at each point in the path
+    //pathLength: the number of points in the path
     //gameScreen: a rectangle that represents the game screen (screen without the panels)
-    private ArrayList<Point> path;
-    private ArrayList<Double> pathAngle;
+    //blockLeft, blockTop, blockRight, blockBottom: the bounds of the points of each block of BLOCK_POINTS points (the last block can be shorter)
+    private double[] pathX, pathY;
+    private double[] blockLeft, blockTop, blockRight, blockBottom;
+    private float[] pathAngle;
     private int pathLength;
     private Rectangle gameScreen;
 
@@ -25,7 +31,23 @@ public class Path {
     public Path(List<Point> polyline, Rectangle gameScreen){
         this.gameScreen = gameScreen;
         generatePath(polyline);
-        this.pathLength = path.size();
+    }
+
+    /**
+     * @param pathLength: the number of points of a path that was generated before (see read)
+     * @param gameScreen: the Rectangle representing the valid game screen the path was generated for
+     */
+    private Path(int pathLength, Rectangle gameScreen){
+        this.gameScreen = gameScreen;
+        this.pathLength = pathLength;
+        this.pathX = new double[pathLength];
+        this.pathY = new double[pathLength];
+        this.pathAngle = new float[pathLength];
+        int blocks = (pathLength + BLOCK_POINTS - 1)/BLOCK_POINTS;
+        this.blockLeft = new double[blocks];
+        this.blockTop = new double[blocks];
+        this.blockRight = new double[blocks];
+        this.blockBottom = new double[blocks];
     }
 
     /**
@@ -33,8 +55,21 @@ public class Path {
      * @param polyline: the polyline from the TiledMap from ShadowDefend
      */
     public void generatePath(List<Point> polyline){
-        this.path = new ArrayList<>();
-        this.pathAngle = new ArrayList<>();
+        //sizing the arrays for the worst case (every sample of every segment on the game screen), they are trimmed at the end
+        int capacity = 0;
+        for(int i = 0; i < polyline.size() - 1; i++){
+            Point p1 = polyline.get(i);
+            Point p2 = polyline.get(i+1);
+            capacity += (int)Math.ceil(4*Math.sqrt(GameMath.distanceSquared(p1.x, p1.y, p2.x, p2.y))) + 1;
+        }
+        this.pathX = new double[capacity];
+        this.pathY = new double[capacity];
+        this.pathAngle = new float[capacity];
+        this.pathLength = 0;
+
+        //the bounds of the game screen, a point is on the game screen if it is within these bounds (inclusive)
+        double left = this.gameScreen.left(), right = this.gameScreen.right(),
+                top = this.gameScreen.top(), bottom = this.gameScreen.bottom();
 
         //iterate over all the points in the polyline up until the second last point
         for(int i = 0; i < polyline.size() - 1; i++){
@@ -42,65 +77,186 @@ public class Path {
             Point p1 = polyline.get(i);
             Point p2 = polyline.get(i+1);
 
-            //turning these points into vectors respectively
-            Vector2 v1 = new Vector2(p1.x, p1.y);
-            Vector2 v2 = new Vector2(p2.x, p2.y);
+            //(x, y) is the current point on the segment, it starts at p1
+            double x = p1.x, y = p1.y;
 
-            //finding the vector between the two points using vector subtraction
-            Vector2 betweenPoints = v2.sub(v1);
+            //finding the vector between the two points
+            double betweenX = p2.x - p1.x, betweenY = p2.y - p1.y;
+            double betweenLength = Math.sqrt(betweenX*betweenX + betweenY*betweenY);
 
-            //unit vector pointing east
-            Vector2 unitEast = new Vector2(1, 0);
-            Vector2 unitDir = betweenPoints.normalised();
+            //the angle that the slicer should be facing is the angle between the unit vector pointing east and the between vector
+            float angle = (float)GameMath.heading(betweenX, betweenY);
 
-            //to compute the angle that the slicer should be facing:
-            //if the y coord of the betweenPoints vector is negative => find the angle between unitEast and unitDir and flip the sign
-            //otherwise just find the angle between unitEat and unitDir
-            double angle = unitDir.y < 0 ? -Math.acos(unitEast.dot(unitDir)) : Math.acos(unitEast.dot(unitDir));
+            //the step added to the current point: the between vector with 1/4 of its original length
+            //we divide it by 4 times its original length because then it will have a magnitude of 0.25 pixels
+            double stepX = betweenX/(betweenLength*4), stepY = betweenY/(betweenLength*4);
 
-            //we will add the normalized vector betweenPoints (v2 - v1) to v1 repeatedly until we have reached sufficiently close to v2 (within 1 pixel)
-            //we will know when we are within sufficient distance by calculating the distance between v1 and v2 as follows
-            double distance = Math.sqrt(Math.pow(v1.asPoint().x - v2.asPoint().x, 2) + Math.pow(v1.asPoint().y - v2.asPoint().y, 2));
+            //we will add the step to the current point repeatedly until we have reached sufficiently close to p2
+            //we will know when we are within sufficient distance by comparing the squared distance between the current point and p2 with 0.25^2
+            double distance = GameMath.distanceSquared(x, y, p2.x, p2.y);
 
-            //while the distance is more than 0.25 pixels we will add Points to the path
-            while(distance > 0.25){
+            //while the distance is more than 0.25 pixels we will add points to the path
+            while(distance > 0.25*0.25){
 
-                //we add v1 to the path as a point and the corresponding angle
+                //we add the current point to the path and the corresponding angle
                 //NOTE: I added this check to make it so points are only added if they are on the game screen. This prevents slicers from travelling over panels
-                if(this.gameScreen.intersects(v1.asPoint())) {
-                    this.path.add(v1.asPoint());
-                    this.pathAngle.add(angle);
+                if(x >= left && x <= right && y >= top && y <= bottom) {
+                    //the capacity is an upper bound but rounding error could add a point so we grow the arrays just in case
+                    if(this.pathLength == this.pathX.length){
+                        this.pathX = Arrays.copyOf(this.pathX, this.pathLength*2 + 1);
+                        this.pathY = Arrays.copyOf(this.pathY, this.pathLength*2 + 1);
+                        this.pathAngle = Arrays.copyOf(this.pathAngle, this.pathLength*2 + 1);
+                    }
+                    this.pathX[this.pathLength] = x;
+                    this.pathY[this.pathLength] = y;
+                    this.pathAngle[this.pathLength] = angle;
+                    this.pathLength++;
                 }
 
-                //adding the betweenPoints vector with 1/4 of its original length to v1
-                //we divide it by 4 times its original length because then it will have a magnitude of 0.25 pixels
-                //Vector2 v1Added = v1.add(betweenPoints.normalised());
-                Vector2 v1Added = v1.add(betweenPoints.div(betweenPoints.length()*4));
+                //update the current point
+                x += stepX;
+                y += stepY;
 
-                //update v1
-                v1 = v1Added;
+                //recalculate the distance based on the updated point
+                distance = GameMath.distanceSquared(x, y, p2.x, p2.y);
+            }
+            //after the while loop we will have a path filled with points 0.25 pixels apart that will follow the polyline
+        }
 
-                //recalculate the distance based on the updated v1
-                distance = Math.sqrt(Math.pow(v1.asPoint().x - v2.asPoint().x, 2) + Math.pow(v1.asPoint().y - v2.asPoint().y, 2));
+        //trimming the arrays down to the number of points that were actually on the game screen
+        this.pathX = Arrays.copyOf(this.pathX, this.pathLength);
+        this.pathY = Arrays.copyOf(this.pathY, this.pathLength);
+        this.pathAngle = Arrays.copyOf(this.pathAngle, this.pathLength);
+        this.computeBlocks();
+    }
+
+    /**
+     * helper method to work out the bounds of every block of points of the path
+     */
+    private void computeBlocks(){
+        int blocks = (this.pathLength + BLOCK_POINTS - 1)/BLOCK_POINTS;
+        this.blockLeft = new double[blocks];
+        this.blockTop = new double[blocks];
+        this.blockRight = new double[blocks];
+        this.blockBottom = new double[blocks];
+        for(int b = 0; b < blocks; b++){
+            double left = Double.POSITIVE_INFINITY, top = Double.POSITIVE_INFINITY,
+                    right = Double.NEGATIVE_INFINITY, bottom = Double.NEGATIVE_INFINITY;
+            for(int i = b*BLOCK_POINTS; i < Math.min((b + 1)*BLOCK_POINTS, this.pathLength); i++){
+                left = Math.min(left, this.pathX[i]);
+                right = Math.max(right, this.pathX[i]);
+                top = Math.min(top, this.pathY[i]);
+                bottom = Math.max(bottom, this.pathY[i]);
             }
-            //after the while loop we will have a path filled with points 1 pixel of magnitude away that will follow the polyline
+            this.blockLeft[b] = left;
+            this.blockTop[b] = top;
+            this.blockRight[b] = right;
+            this.blockBottom[b] = bottom;
+        }
+    }
+
+    /**
+     * method to write the points of this path and the bounds of its blocks
+     * (the number of points, then every x, every y and every angle, then the left, top, right and bottom of every block)
+     * @param out: the buffer the path is written to
+     * @throws java.nio.BufferOverflowException if the path doesn't fit in the buffer (see getBytes)
+     */
+    public void write(ByteBuffer out){
+        out.putInt(this.pathLength);
+        //each array is copied in one go through a view of the buffer, the views don't move the buffer's position so it is moved past the array
+        out.asDoubleBuffer().put(this.pathX);
+        out.position(out.position() + 8*this.pathX.length);
+        out.asDoubleBuffer().put(this.pathY);
+        out.position(out.position() + 8*this.pathY.length);
+        out.asFloatBuffer().put(this.pathAngle);
+        out.position(out.position() + 4*this.pathAngle.length);
+        for(double[] bounds: new double[][]{this.blockLeft, this.blockTop, this.blockRight, this.blockBottom}){
+            out.asDoubleBuffer().put(bounds);
+            out.position(out.position() + 8*bounds.length);
         }
     }
 
+    /**
+     * method to create a path from what write wrote, without walking the polyline again or working out the blocks again
+     * @param in: the buffer the path is read from
+     * @param gameScreen: the Rectangle representing the valid game screen the path was generated for
+     * @return the path
+     * @throws java.nio.BufferUnderflowException if the buffer ends before the path does
+     */
+    public static Path read(ByteBuffer in, Rectangle gameScreen){
+        Path path = new Path(in.getInt(), gameScreen);
+        in.asDoubleBuffer().get(path.pathX);
+        in.position(in.position() + 8*path.pathX.length);
+        in.asDoubleBuffer().get(path.pathY);
+        in.position(in.position() + 8*path.pathY.length);
+        in.asFloatBuffer().get(path.pathAngle);
+        in.position(in.position() + 4*path.pathAngle.length);
+        for(double[] bounds: new double[][]{path.blockLeft, path.blockTop, path.blockRight, path.blockBottom}){
+            in.asDoubleBuffer().get(bounds);
+            in.position(in.position() + 8*bounds.length);
+        }
+        return path;
+    }
+
+    /**
+     * @param pathLength: a number of points
+     * @return the number of bytes write writes for a path with that many points
+     */
+    public static int getBytes(int pathLength){
+        return 4 + 20*pathLength + 32*((pathLength + BLOCK_POINTS - 1)/BLOCK_POINTS);
+    }
+
     //Getters
 
     /**
-     * @return the list of Points that represents the path along the polylines of the map
+     * @return the number of bytes write writes for this path
+     */
+    public int getBytes(){ return getBytes(pathLength); }
+
+    /**
+     * @param index: the index of a point in the path
+     * @return the x coordinate of the point at index
+     */
+    public double getX(int index) { return pathX[index]; }
+
+    /**
+     * @param index: the index of a point in the path
+     * @return the y coordinate of the point at index
      */
-    public ArrayList<Point> getPath() { return path; }
+    public double getY(int index) { return pathY[index]; }
 
     /**
-     * @return the list of doubles that represents the angle the slicer should be facing in radians at each point in the path attribute
+     * @param index: the index of a point in the path
+     * @return the angle in radians the slicer should be facing at the point at index
      */
-    public ArrayList<Double> getPathAngle() { return pathAngle; }
+    public double getAngle(int index) { return pathAngle[index]; }
 
     /**
-     * @return the length of the path list
+     * @return the number of points in the path
      */
     public int getPathLength(){ return pathLength; }
+
+    /**
+     * @param block: the index of a block of the path (the block of point i is i/BLOCK_POINTS)
+     * @return the smallest x coordinate of the points in the block
+     */
+    public double getBlockLeft(int block) { return blockLeft[block]; }
+
+    /**
+     * @param block: the index of a block of the path
+     * @return the smallest y coordinate of the points in the block
+     */
+    public double getBlockTop(int block) { return blockTop[block]; }
+
+    /**
+     * @param block: the index of a block of the path
+     * @return the largest x coordinate of the points in the block
+     */
+    public double getBlockRight(int block) { return blockRight[block]; }
+
+    /**
+     * @param block: the index of a block of the path
+     * @return the largest y coordinate of the points in the block
+     */
+    public double getBlockBottom(int block) { return blockBottom[block]; }
 }
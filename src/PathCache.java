@@ -0,0 +1,155 @@
+import bagel.util.Rectangle;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * PathCache class keeps the generated Path of each level in a .pathbin file next to its tmx file, so the polyline is only walked
+ * the first time a level is played (and again only when its map changes), every other load is a memory-mapped read of the points
+ * a cached path is keyed by the length and CRC32 of the tmx file's contents and the game screen it was generated for
+ * (a CRC32 rather than a cryptographic hash because the key only has to notice a map being edited, and the JVM's message digests
+ * take longer to start up than generating the path does)
+ *
+ * the cache file is big-endian: a header of HEADER_BYTES (MAGIC, VERSION, the length and CRC32 of the tmx file and the left, top,
+ * right and bottom of the game screen) and then the points of the path and the bounds of its blocks (see Path.write)
+ */
+public final class PathCache {
+
+    //static attributes
+    //the suffix added to a tmx file's name to get the name of its cached path
+    public static final String SUFFIX = ".pathbin";
+    //the first 4 bytes of a cached path ("SDPT") and the version of the format, a path cached with a different version is generated again
+    private static final int MAGIC = 0x53445054;
+    private static final int VERSION = 1;
+    //the header: MAGIC, VERSION, the length and CRC32 of the tmx file and the 4 edges of the game screen
+    private static final int HEADER_BYTES = 8 + 12 + 32;
+
+    private PathCache(){}
+
+    /**
+     * method to get the path of a level, from its cache file if the cache was made from the same tmx file and game screen
+     * a path that isn't cached is generated from the level's map and cached (if the folder can't be written to it is only generated)
+     * @param tmxFile: the path of the level's tmx file
+     * @param gameScreen: the bounding box of the game screen the path is generated for
+     * @return the path of the level
+     * @throws IllegalArgumentException if the tmx file doesn't exist or can't be parsed
+     */
+    public static Path load(String tmxFile, Rectangle gameScreen){
+        File cache = new File(tmxFile + SUFFIX);
+        byte[] key;
+        try{
+            key = key(new File(tmxFile), gameScreen);
+            Path path = read(cache, key, gameScreen);
+            if(path != null){
+                return path;
+            }
+        }
+        catch(IOException e){
+            throw new IllegalArgumentException("could not read the map " + tmxFile, e);
+        }
+
+        Path path = new Path(LevelLoader.getMap(tmxFile).getAllPolylines().get(0), gameScreen);
+        if(cache.getAbsoluteFile().getParentFile().canWrite()){
+            try{
+                write(path, key, cache);
+            }
+            catch(IOException e){
+                //the path is still used, the next load generates it again and tries to cache it again
+                e.printStackTrace();
+            }
+        }
+        return path;
+    }
+
+    /**
+     * method to read a cached path
+     * @param cache: the cache file
+     * @param key: the key the path must have been cached with (see key)
+     * @param gameScreen: the game screen the path was generated for
+     * @return the cached path, or null if the file doesn't exist or wasn't cached with this version and key
+     * @throws IOException if the file can't be read
+     */
+    static Path read(File cache, byte[] key, Rectangle gameScreen) throws IOException {
+        if(!cache.isFile() || cache.length() < HEADER_BYTES){
+            return null;
+        }
+        FileChannel channel = new RandomAccessFile(cache, "r").getChannel();
+        try{
+            //the header is checked before the file is mapped: a stale cache is replaced by load, and on Windows a file that is still
+            //mapped (until the buffer is garbage collected) can't be replaced
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while(header.hasRemaining()){
+                if(channel.read(header) == -1){
+                    return null;
+                }
+            }
+            byte[] cachedKey = new byte[key.length];
+            header.flip();
+            if(header.getInt() != MAGIC || header.getInt() != VERSION){
+                return null;
+            }
+            header.get(cachedKey);
+            if(!Arrays.equals(cachedKey, key)){
+                return null;
+            }
+            ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            in.position(HEADER_BYTES);
+            //a file that was cut short (e.g. the disk filled up) is generated again rather than read past its end
+            if(in.remaining() < 4 || in.getInt(in.position()) < 0 || in.remaining() != Path.getBytes(in.getInt(in.position()))){
+                return null;
+            }
+            return Path.read(in, gameScreen);
+        }
+        finally{
+            channel.close();
+        }
+    }
+
+    /**
+     * method to write a path to a cache file
+     * the cache file is replaced in one step (see AtomicFile), so a cache that is being written is never read
+     * @param path: the path to cache
+     * @param key: the key of the path (see key)
+     * @param cache: the cache file (replaced if it exists)
+     * @throws IOException if the file can't be written
+     */
+    static void write(Path path, byte[] key, File cache) throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(8 + key.length + path.getBytes());
+        out.putInt(MAGIC).putInt(VERSION).put(key);
+        path.write(out);
+        out.flip();
+
+        AtomicFile.write(cache, out);
+    }
+
+    /**
+     * method to work out the key a path is cached with: the length and CRC32 of the tmx file followed by the edges of the game screen
+     * @param tmxFile: the level's tmx file
+     * @param gameScreen: the game screen the path is generated for
+     * @return the key (HEADER_BYTES - 8 bytes)
+     * @throws IOException if the tmx file can't be read
+     */
+    static byte[] key(File tmxFile, Rectangle gameScreen) throws IOException {
+        CRC32 crc = new CRC32();
+        long length = 0;
+        InputStream in = new FileInputStream(tmxFile);
+        try{
+            byte[] buffer = new byte[8192];
+            int read;
+            while((read = in.read(buffer)) != -1){
+                crc.update(buffer, 0, read);
+                length += read;
+            }
+        }
+        finally{
+            in.close();
+        }
+        ByteBuffer key = ByteBuffer.allocate(HEADER_BYTES - 8);
+        key.putLong(length).putInt((int)crc.getValue());
+        key.putDouble(gameScreen.left()).putDouble(gameScreen.top()).putDouble(gameScreen.right()).putDouble(gameScreen.bottom());
+        return key.array();
+    }
+}
@@ -0,0 +1,99 @@
+import bagel.util.Rectangle;
+import java.util.Arrays;
+
+/**
+ * PathCoverage class is the part of a level's path that a tower's range covers, precomputed when the tower is placed
+ * slicers only ever stand on the points of the Path, so whether a slicer is in range only depends on the index of its point and its type
+ * the covered points are stored as intervals of path indices for each SlicerType (the bounding box of each type has a different size)
+ * blocks of the path whose bounds are entirely out of (or entirely in) range are handled whole, so only the points of the blocks
+ * that cross the edge of the range are checked one by one
+ */
+public class PathCoverage {
+
+    //static attributes
+    //whether none, some or all of the points of a block of the path are in range
+    private static final int NONE = 0, SOME = 1, ALL = 2;
+
+    /*
+    intervals: for each SlicerType (indexed by ordinal) the first and last path index of each covered interval, in path order
+    ([first0, last0, first1, last1, ...], both ends are included)
+     */
+    private final int[][] intervals = new int[SlicerType.values().length][];
+
+    /**
+     * @param range: the range of the tower on the screen
+     * @param path: the path of the level the tower was placed in
+     */
+    public PathCoverage(Rectangle range, Path path){
+        double left = range.left(), top = range.top(), right = range.right(), bottom = range.bottom();
+
+        for(SlicerType t: SlicerType.values()){
+            int width = t.getWidth(), height = t.getHeight();
+            int[] covered = new int[8];
+            int count = 0;
+            //start is the first index of the interval being built, or -1 if the previous point wasn't covered
+            int start = -1;
+
+            int length = path.getPathLength();
+            for(int i = 0; i <= length; i++){
+                //at the start of a block where none or all of the points are in range the whole block is handled at once,
+                //last is the last point handled this iteration (the last point of the block, or i when only i is checked)
+                int last = i;
+                int state = i < length && i % Path.BLOCK_POINTS == 0
+                        ? blockState(path, i/Path.BLOCK_POINTS, width, height, left, top, right, bottom) : SOME;
+                boolean inRange = false;
+                if(i < length && state != SOME){
+                    inRange = state == ALL;
+                    last = Math.min(i + Path.BLOCK_POINTS, length) - 1;
+                }
+                //the same overlap test as Slicer.intersects for a slicer of this type standing on point i (touching edges don't count)
+                else if(i < length){
+                    double boxLeft = path.getX(i) - width/2, boxTop = path.getY(i) - height/2;
+                    inRange = boxLeft < right && boxLeft + width > left && boxTop < bottom && boxTop + height > top;
+                }
+
+                if(inRange && start == -1){
+                    start = i;
+                }
+                //an interval ends at the point before the first point that isn't covered (or at the end of the path)
+                else if(!inRange && start != -1){
+                    if(count == covered.length){
+                        covered = Arrays.copyOf(covered, 2*covered.length);
+                    }
+                    covered[count++] = start;
+                    covered[count++] = i - 1;
+                    start = -1;
+                }
+                i = last;
+            }
+            this.intervals[t.ordinal()] = Arrays.copyOf(covered, count);
+        }
+    }
+
+    /**
+     * helper method to work out whether none, some or all of the points of a block of the path are in range for a slicer type
+     * the overlap test only gets harder to pass as a box moves away from the range, so testing the block's bounds
+     * (the box least likely to overlap for ALL, the one most likely to overlap for NONE) gives the same answer as testing every point
+     */
+    private static int blockState(Path path, int block, int width, int height, double left, double top, double right, double bottom){
+        double blockLeft = path.getBlockLeft(block), blockTop = path.getBlockTop(block),
+                blockRight = path.getBlockRight(block), blockBottom = path.getBlockBottom(block);
+        if(!(blockLeft - width/2 < right && blockRight - width/2 + width > left
+                && blockTop - height/2 < bottom && blockBottom - height/2 + height > top)){
+            return NONE;
+        }
+        if(blockRight - width/2 < right && blockLeft - width/2 + width > left
+                && blockBottom - height/2 < bottom && blockTop - height/2 + height > top){
+            return ALL;
+        }
+        return SOME;
+    }
+
+    //Getters
+
+    /**
+     * @param type: a type of slicer
+     * @return the covered intervals of path indices for slicers of that type ([first0, last0, first1, last1, ...], both ends included)
+     */
+    public int[] getIntervals(SlicerType type){ return this.intervals[type.ordinal()]; }
+}
@@ -0,0 +1,142 @@
+import bagel.util.Rectangle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PlacementMap class answers whether a tower can be placed at a point of the window without looking at the map's tiles or every tower
+ * two bitmaps of the window's pixels (one bit per pixel, 64 pixels per long) are kept for a level: the pixels a tower can never be
+ * placed on (blocked tiles and the panels outside the game screen), built when the level is loaded, and the pixels covered by the
+ * bounding boxes of the placed towers, set as each tower is placed, so checking a point is a lookup of one bit in each
+ * airsupport towers fly across the screen so they aren't in the bitmap, the few that are still in play are checked one by one
+ *
+ * a point is checked at the pixel it falls in ((int)x, (int)y, like LevelMap.hasProperty), so for points with whole coordinates
+ * (every mouse position on a screen without scaling) the answers are exactly those of the map, game screen and bounding box checks
+ */
+public class PlacementMap {
+
+    //static attributes
+    //the pixels covered by the bitmaps: every point of the window, including its right and bottom edges
+    private static final int COLUMNS = GameSimulation.WIDTH + 1, ROWS = GameSimulation.HEIGHT + 1;
+    //the number of longs in each row of a bitmap
+    private static final int ROW_WORDS = (COLUMNS + 63)/64;
+
+    /*
+    blocked: the pixels where no tower can be placed (on a blocked tile, or off the game screen)
+    towers: the pixels covered by the bounding box of a tower that stays where it was placed (tanks and supertanks)
+    planes: the airsupport towers placed that may still be in play (an airsupport taken out of play never comes back, so it is dropped)
+     */
+    private final long[] blocked = new long[ROWS*ROW_WORDS];
+    private final long[] towers = new long[ROWS*ROW_WORDS];
+    private final List<Tower> planes = new ArrayList<Tower>();
+
+    /**
+     * @param map: the map of the level, its tiles with the "blocked" property are blocked
+     * @param gameScreen: the game screen, every pixel outside it (the buy panel and status panel) is blocked
+     */
+    public PlacementMap(LevelMap map, Rectangle gameScreen){
+        //blocking each blocked tile's pixels (LevelMap.hasProperty checks the tile of a pixel, so checking a tile's first pixel checks the tile)
+        int tileWidth = map.getTileWidth(), tileHeight = map.getTileHeight();
+        for(int row = 0; row < map.getHeight(); row++){
+            for(int column = 0; column < map.getWidth(); column++){
+                if(map.hasProperty(column*tileWidth, row*tileHeight, "blocked")){
+                    fill(this.blocked, column*tileWidth, row*tileHeight, (column + 1)*tileWidth - 1, (row + 1)*tileHeight - 1);
+                }
+            }
+        }
+
+        //blocking the pixels outside the game screen (its edges are part of it, like Rectangle.intersects(Point))
+        int left = (int)Math.ceil(gameScreen.left()), top = (int)Math.ceil(gameScreen.top());
+        int right = (int)Math.floor(gameScreen.right()), bottom = (int)Math.floor(gameScreen.bottom());
+        fill(this.blocked, 0, 0, COLUMNS - 1, top - 1);
+        fill(this.blocked, 0, bottom + 1, COLUMNS - 1, ROWS - 1);
+        fill(this.blocked, 0, top, left - 1, bottom);
+        fill(this.blocked, right + 1, top, COLUMNS - 1, bottom);
+    }
+
+    /**
+     * method to add a tower that has just been placed
+     * @param tower: the tower, at the location it was placed at
+     */
+    public void addTower(Tower tower){
+        if(tower.getType().equals("airsupport")){
+            this.planes.add(tower);
+            return;
+        }
+        //the pixels inside the bounding box, edges included (see Tower.contains)
+        double left = tower.getX() - Tower.SIZE/2.0, top = tower.getY() - Tower.SIZE/2.0;
+        fill(this.towers, (int)Math.ceil(left), (int)Math.ceil(top), (int)Math.floor(left + Tower.SIZE), (int)Math.floor(top + Tower.SIZE));
+    }
+
+    /**
+     * method to replace the placed towers (when the towers are reset or a snapshot is restored)
+     * @param placed: every tower that has been placed
+     */
+    public void setTowers(List<Tower> placed){
+        Arrays.fill(this.towers, 0L);
+        this.planes.clear();
+        for(int i = 0; i < placed.size(); i++){
+            this.addTower(placed.get(i));
+        }
+    }
+
+    /**
+     * @param x: the x coordinate of a point on the screen
+     * @param y: the y coordinate of a point on the screen
+     * @return whether the point is on the game screen and not on a blocked tile
+     */
+    public boolean isOpen(double x, double y){
+        return x >= 0 && y >= 0 && x < COLUMNS && y < ROWS && !get(this.blocked, (int)x, (int)y);
+    }
+
+    /**
+     * method to check whether a point is inside the bounding box of a tower
+     * the airsupport that have been taken out of play are dropped as they are found
+     * @param x: the x coordinate of a point on the screen
+     * @param y: the y coordinate of a point on the screen
+     * @return whether the point is inside the bounding box of a tower that is in play
+     */
+    public boolean hasTower(double x, double y){
+        if(x >= 0 && y >= 0 && x < COLUMNS && y < ROWS && get(this.towers, (int)x, (int)y)){
+            return true;
+        }
+        int i = 0;
+        while(i < this.planes.size()){
+            Tower plane = this.planes.get(i);
+            if(!plane.isInPlay()){
+                //swap-removing the airsupport (the order of the planes doesn't matter)
+                this.planes.set(i, this.planes.get(this.planes.size() - 1));
+                this.planes.remove(this.planes.size() - 1);
+                continue;
+            }
+            if(plane.contains(x, y)){
+                return true;
+            }
+            i++;
+        }
+        return false;
+    }
+
+    /**
+     * helper method to check the bit of a pixel
+     */
+    private static boolean get(long[] bitmap, int x, int y){
+        return (bitmap[y*ROW_WORDS + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * helper method to set the bits of the pixels of a rectangle (both corners included, clipped to the bitmap)
+     */
+    private static void fill(long[] bitmap, int left, int top, int right, int bottom){
+        left = Math.max(left, 0);
+        top = Math.max(top, 0);
+        right = Math.min(right, COLUMNS - 1);
+        bottom = Math.min(bottom, ROWS - 1);
+        for(int y = top; y <= bottom; y++){
+            for(int x = left; x <= right; x++){
+                bitmap[y*ROW_WORDS + (x >>> 6)] |= 1L << x;
+            }
+        }
+    }
+}
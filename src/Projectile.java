@@ -1,10 +1,9 @@
-import bagel.Image;
-import bagel.util.Point;
-import bagel.util.Vector2;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
  * Projectile class represents ammo for ActiveTowers
+ * a projectile is reset with a new position and target each time its tower fires it
  */
 public class Projectile extends Ammo{
 
@@ -14,27 +13,72 @@ public class Projectile extends Ammo{
     private int speed;
 
     /**
-     * @param location: the initial Point of the projectile on the screen
-     * @param type: the type of projectile (tank, supertank)
+     * creates a projectile that hasn't been fired yet, reset must be called before it is used
      */
-    public Projectile(Point location, String type) {
-        this.setImage(new Image("res/images/" + type + "_projectile.png"));
-        this.setLocation(location, this.getImage().getBoundingBoxAt(location));
+    public Projectile() {
         this.speed = 10;
+    }
+
+    /**
+     * method to fire the projectile from a tower
+     * @param x: the initial x coordinate of the projectile on the screen
+     * @param y: the initial y coordinate of the projectile on the screen
+     * @param type: the type of projectile (tank, supertank)
+     * @param target: the slicer the projectile is fired at
+     */
+    public void reset(double x, double y, String type, Slicer target) {
+        this.setPosition(x, y);
+        this.savePosition();
+        this.target = target;
         switch(type){
             case "tank":
+                this.setImageName("tank_projectile");
                 this.setDamage(1);
                 break;
             case "supertank":
+                this.setImageName("supertank_projectile");
                 this.setDamage(3);
                 break;
         }
     }
 
     /**
-     * @param slicers: a list of slicers for the current wave that is used to choose a target for the projectile
+     * method to write the state of this projectile to a snapshot
+     * a live target is written as its slot in the live slicers, a target that has already left them (eliminated or finished the path)
+     * is written in full because the projectile still flies to where it was
+     * @param out: the buffer the state is written to
+     */
+    @Override
+    public void save(ByteBuffer out){
+        super.save(out);
+        if(this.target == null){
+            out.putInt(-1);
+        }
+        else if(this.target.getSlot() >= 0){
+            out.putInt(this.target.getSlot());
+        }
+        else{
+            out.putInt(-2);
+            this.target.save(out);
+        }
+    }
+
+    /**
+     * method to set the state of this projectile from a snapshot written by save
+     * @param in: the buffer the state is read from
+     * @param slicers: the live slicers of the restored game (already restored, in the order they were saved)
+     */
+    @Override
+    public void restore(ByteBuffer in, SlicerSet slicers){
+        super.restore(in, slicers);
+        int slot = in.getInt();
+        this.target = slot == -1 ? null : slot == -2 ? Slicer.load(in) : slicers.get(slot);
+    }
+
+    /**
+     * @param slicers: a list of slicers for the current wave that is used to choose a target for the projectile if it doesn't have one
      * @param timeScaleMultiplier: the timeScaleMultiplier from ShadowDefend used to affect projectile speed
-     * @return
+     * @return a boolean indicating whether the projectile hit its target
      */
     public boolean damageSlicers(List<Slicer> slicers, int timeScaleMultiplier){
         //if the target is null and there is a slicer in the slicers list, we initialize the target with the first slicer in the list
@@ -45,29 +89,28 @@ public class Projectile extends Ammo{
         //if the target is not null we check to see if the projectile has intersected with it
         if(this.target != null){
 
-            //if the projectile intersects with the slicer then we deduct health
-            if(this.target.getBounding().intersects(this.getLocation())){
+            //if the projectile is inside the slicer's bounding box (edges included) then we deduct health
+            if(this.target.contains(this.getX(), this.getY())){
                 if(this.target.getHealth() > 0) {
                     this.target.deductHealth(this.getDamage());
                 }
+                this.target = null;
                 return true;
             }
 
-            //the vector to the target
-            Vector2 toTarget = new Vector2(this.target.getLocation().x, this.target.getLocation().y);
-            //the vector to the ammo
-            Vector2 toAmmo = new Vector2(this.getLocation().x, this.getLocation().y);
+            //the vector pointing from the ammo to the target and its length
+            double dx = this.target.getX() - this.getX(), dy = this.target.getY() - this.getY();
+            double length = Math.sqrt(dx*dx + dy*dy);
 
-            //the vector pointing from the ammo to the target
-            Vector2 betweenPoints = toTarget.sub(toAmmo);
-
-            //unit vector for the betweenPoints vector
-            Vector2 unitDir = betweenPoints.normalised();
-
-            //the vector to the next point for the ammo
-            Vector2 path = toAmmo.add(unitDir.mul(this.speed*timeScaleMultiplier));
-
-            this.setLocation(path.asPoint(), this.getImage().getBoundingBoxAt(path.asPoint()));
+            //moving the projectile along the unit vector towards the target
+            //the move is swept: if the target is closer than the step the projectile stops at the target's location instead of flying past it
+            int step = this.speed*timeScaleMultiplier;
+            if(step >= length){
+                this.setPosition(this.target.getX(), this.target.getY());
+            }
+            else{
+                this.setPosition(this.getX() + dx/length*step, this.getY() + dy/length*step);
+            }
         }
         //otherwise it means there were no slicers in range
         return false;
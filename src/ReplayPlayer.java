@@ -0,0 +1,265 @@
+import bagel.util.Point;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * ReplayPlayer plays a log written by ReplayRecorder again with a headless GameSimulation, as fast as the simulation can tick
+ * each input is applied on the tick it was recorded on, and the checksum of the game's state is compared with every recorded checksum,
+ * so a replay made with a different build reports the first tick where that build plays the game differently
+ * a checkpoint of the game is taken every checkpoint interval as it is played, so seeking to any tick restores the latest
+ * checkpoint before it and runs fewer than an interval of ticks
+ *
+ * usage: ReplayPlayer replayFile
+ * -Dreplay.printChecksums=true prints every tick and checksum, so the output of two builds can be diffed even without a recording from either
+ * -Dreplay.checkpointTicks=N takes a checkpoint every N ticks (default 600, 10 seconds of game time at 1x)
+ * -Dreplay.seeks=N then seeks to N random recorded checksums (in random order) and checks the game matches the recording after each seek
+ * it must be run from the same folder as the recorded game so the waves file and the maps in res/levels can be found
+ */
+public class ReplayPlayer {
+
+    /*
+    simulation: the game being replayed
+    checkpoints: the checkpoints taken of the game so far, each one's marker is the index of the next event to apply
+    codes, ticks: the code of each event of the log and the tick it was recorded on
+    towers, xs, ys: the tower type index and position of each START_PLACING and PLACE_TOWER event
+    checksums: the recorded checksum of each CHECKSUM event
+    nextEvent: the index of the next event to apply
+    inputs: the number of inputs applied, checksums compared: the number of checksums compared (each event is only counted the first time it is played)
+    mismatches: the number of checksums that didn't match the recording
+    firstMismatch: the tick of the first checksum that didn't match (-1 if every checksum matched)
+    furthestEvent: the index of the first event that has never been played
+     */
+    private final GameSimulation simulation;
+    private final Checkpoints checkpoints;
+    private int[] codes = new int[64], towers = new int[64];
+    private long[] ticks = new long[64], checksums = new long[64];
+    private double[] xs = new double[64], ys = new double[64];
+    private int eventCount = 0, nextEvent = 0, inputs = 0, compared = 0, mismatches = 0, furthestEvent = 0;
+    private long firstMismatch = -1;
+
+    /**
+     * @param simulation: a new game created with the seed, level and waves file of the recording
+     * @param in: the log, positioned after its header (it is read to the end)
+     * @param checkpointTicks: the number of ticks between two checkpoints
+     * @throws IOException if the log can't be read or is cut short in the middle of an event
+     */
+    public ReplayPlayer(GameSimulation simulation, DataInputStream in, int checkpointTicks) throws IOException {
+        this.simulation = simulation;
+        this.checkpoints = new Checkpoints(checkpointTicks);
+        this.read(in);
+        //the first checkpoint is the start of the game, so every tick has a checkpoint at or before it
+        this.checkpoints.take(simulation, 0);
+    }
+
+    /**
+     * helper method to read every event of the log into memory, so seeking back can play events again
+     */
+    private void read(DataInputStream in) throws IOException {
+        long tick = this.simulation.getTicks();
+        int code;
+        while((code = in.read()) != -1){
+            if(this.eventCount == this.codes.length){
+                int length = 2*this.eventCount;
+                this.codes = Arrays.copyOf(this.codes, length);
+                this.towers = Arrays.copyOf(this.towers, length);
+                this.ticks = Arrays.copyOf(this.ticks, length);
+                this.checksums = Arrays.copyOf(this.checksums, length);
+                this.xs = Arrays.copyOf(this.xs, length);
+                this.ys = Arrays.copyOf(this.ys, length);
+            }
+            tick += readTicks(in);
+            this.codes[this.eventCount] = code;
+            this.ticks[this.eventCount] = tick;
+
+            switch(code){
+                case ReplayRecorder.START_PLACING:
+                    this.towers[this.eventCount] = in.readUnsignedByte();
+                    break;
+                case ReplayRecorder.PLACE_TOWER:
+                    this.towers[this.eventCount] = in.readUnsignedByte();
+                    this.xs[this.eventCount] = in.readDouble();
+                    this.ys[this.eventCount] = in.readDouble();
+                    break;
+                case ReplayRecorder.CHECKSUM:
+                    this.checksums[this.eventCount] = in.readLong();
+                    break;
+                case ReplayRecorder.START_WAVE:
+                case ReplayRecorder.INCREASE_TIMESCALE:
+                case ReplayRecorder.DECREASE_TIMESCALE:
+                case ReplayRecorder.STOP_PLACING:
+                    break;
+                default:
+                    throw new IOException("unknown event " + code + " at tick " + tick);
+            }
+            this.eventCount++;
+        }
+    }
+
+    /**
+     * method to play every event of the log
+     * @param printChecksums: whether to print the tick and checksum of every recorded checksum
+     */
+    public void play(boolean printChecksums){
+        while(this.nextEvent < this.eventCount){
+            this.runTo(this.ticks[this.nextEvent]);
+            this.apply(this.nextEvent, printChecksums);
+            this.nextEvent++;
+        }
+    }
+
+    /**
+     * method to put the game in the state it was in on a tick: after the tick was run and before the inputs recorded on that tick
+     * (the state a recorded checksum was taken of)
+     * @param tick: the tick to seek to
+     */
+    public void seek(long tick){
+        //restoring the latest checkpoint at or before the tick, unless the game is already between that checkpoint and the tick
+        //(the game is past the tick once it has run more ticks, or applied an input recorded on the tick)
+        int checkpoint = this.checkpoints.find(tick);
+        boolean past = this.simulation.getTicks() > tick || (this.nextEvent > 0 && this.ticks[this.nextEvent - 1] >= tick);
+        if(past || this.checkpoints.getTick(checkpoint) > this.simulation.getTicks()){
+            this.checkpoints.restore(checkpoint, this.simulation);
+            this.nextEvent = this.checkpoints.getMarker(checkpoint);
+        }
+
+        //playing the inputs recorded before the tick
+        while(this.nextEvent < this.eventCount && this.ticks[this.nextEvent] < tick){
+            this.runTo(this.ticks[this.nextEvent]);
+            this.apply(this.nextEvent, false);
+            this.nextEvent++;
+        }
+        this.runTo(tick);
+    }
+
+    /**
+     * helper method to run ticks until the game reaches a tick, taking a checkpoint whenever one is due
+     * a checkpoint's marker is the next event, which is recorded on or after the checkpoint's tick and hasn't been applied yet
+     */
+    private void runTo(long tick){
+        while(this.simulation.getTicks() < tick){
+            this.simulation.tick();
+            if(this.checkpoints.isDue(this.simulation)){
+                this.checkpoints.take(this.simulation, this.nextEvent);
+            }
+        }
+    }
+
+    /**
+     * helper method to apply an event to the game
+     */
+    private void apply(int event, boolean printChecksums){
+        boolean firstTime = event >= this.furthestEvent;
+        this.furthestEvent = Math.max(this.furthestEvent, event + 1);
+
+        switch(this.codes[event]){
+            case ReplayRecorder.START_WAVE:
+                this.simulation.startWave();
+                break;
+            case ReplayRecorder.INCREASE_TIMESCALE:
+                this.simulation.increaseTimescale();
+                break;
+            case ReplayRecorder.DECREASE_TIMESCALE:
+                this.simulation.decreaseTimescale();
+                break;
+            case ReplayRecorder.START_PLACING:
+                this.simulation.startPlacing();
+                break;
+            case ReplayRecorder.PLACE_TOWER:
+                //the tower being placed has no state until it is placed, so a new tower of the recorded type is placed
+                this.simulation.placeTower(Tower.create(Tower.TYPES[this.towers[event]]), new Point(this.xs[event], this.ys[event]));
+                this.simulation.stopPlacing();
+                break;
+            case ReplayRecorder.STOP_PLACING:
+                this.simulation.stopPlacing();
+                break;
+            case ReplayRecorder.CHECKSUM:
+                if(firstTime){
+                    long checksum = this.simulation.getChecksum();
+                    if(printChecksums){
+                        System.out.println(this.simulation.getTicks() + " " + Long.toHexString(checksum));
+                    }
+                    if(checksum != this.checksums[event]){
+                        if(this.mismatches == 0){
+                            this.firstMismatch = this.simulation.getTicks();
+                        }
+                        this.mismatches++;
+                    }
+                    this.compared++;
+                }
+                return;
+        }
+        if(firstTime){
+            this.inputs++;
+        }
+    }
+
+    /**
+     * helper method to read the ticks since the last event (an unsigned varint, 7 bits per byte with the top bit set when more bytes follow)
+     */
+    private static long readTicks(DataInputStream in) throws IOException {
+        long ticks = 0;
+        for(int shift = 0; ; shift += 7){
+            int b = in.readUnsignedByte();
+            ticks |= (long)(b & 0x7f) << shift;
+            if(b < 0x80){
+                return ticks;
+            }
+        }
+    }
+
+    //main method
+    public static void main(String[] args) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(args[0])));
+        ReplayPlayer player;
+        long start = System.nanoTime();
+        try{
+            if(in.readInt() != ReplayRecorder.MAGIC || in.readInt() != ReplayRecorder.VERSION){
+                throw new IOException(args[0] + " is not a replay of version " + ReplayRecorder.VERSION);
+            }
+            long seed = in.readLong();
+            int level = in.readInt();
+            String wavesFile = in.readUTF();
+            player = new ReplayPlayer(new GameSimulation(wavesFile, level, seed), in, Integer.getInteger("replay.checkpointTicks", 600));
+        }
+        finally{
+            in.close();
+        }
+
+        player.play(Boolean.getBoolean("replay.printChecksums"));
+        GameSimulation simulation = player.simulation;
+        System.out.printf("replayed %d ticks (%d inputs, %d checksums) in %.2f s: level %d, wave %d, lives %d, cash %d%n",
+                simulation.getTicks(), player.inputs, player.compared, (System.nanoTime() - start)/1e9,
+                simulation.getLevel(), simulation.getWave(), simulation.getLives(), simulation.getCash());
+        System.out.printf("%d checkpoints of %d bytes in total%n", player.checkpoints.getCount(), player.checkpoints.getBytes());
+        if(player.mismatches > 0){
+            throw new IllegalStateException(player.mismatches + " of " + player.compared
+                    + " checksums don't match the recording, the first at tick " + player.firstMismatch);
+        }
+
+        //seeking to random recorded checksums and checking the game is in the recorded state after each seek
+        int seeks = player.compared > 0 ? Integer.getInteger("replay.seeks", 0) : 0;
+        Random random = new Random(0);
+        int failedSeeks = 0;
+        long slowestSeek = 0;
+        for(int i = 0; i < seeks; i++){
+            int event = random.nextInt(player.eventCount);
+            while(player.codes[event] != ReplayRecorder.CHECKSUM){
+                event = (event + 1) % player.eventCount;
+            }
+            long seekStart = System.nanoTime();
+            player.seek(player.ticks[event]);
+            slowestSeek = Math.max(slowestSeek, System.nanoTime() - seekStart);
+            if(simulation.getChecksum() != player.checksums[event]){
+                failedSeeks++;
+            }
+        }
+        if(seeks > 0){
+            System.out.printf("%d seeks, %d didn't match the recording, the slowest took %.2f ms%n", seeks, failedSeeks, slowestSeek/1e6);
+            if(failedSeeks > 0){
+                throw new IllegalStateException(failedSeeks + " of " + seeks + " seeks don't match the recording");
+            }
+        }
+    }
+}
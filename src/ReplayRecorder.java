@@ -0,0 +1,152 @@
+import bagel.util.Point;
+
+import java.io.*;
+
+/**
+ * ReplayRecorder class writes a game to a compact binary log so it can be played again headlessly with ReplayPlayer
+ * a game only depends on its seed and the player's inputs, so only those are written (plus a checksum of the game's state every
+ * CHECKSUM_TICKS ticks, which lets a replay find the first tick where a different build plays the game differently)
+ *
+ * the log is big-endian: MAGIC, VERSION, the seed, the starting level and the waves file, then one record per event:
+ * the event's code (1 byte), the number of ticks since the last event (an unsigned varint, 1 byte for fewer than 128 ticks) and
+ * the event's data (the tower type's index in Tower.TYPES for START_PLACING, that and the position for PLACE_TOWER, the checksum for CHECKSUM)
+ */
+public class ReplayRecorder {
+
+    //static attributes
+    //the first 4 bytes of a replay ("SDRP") and the version of the format
+    static final int MAGIC = 0x53445250;
+    static final int VERSION = 1;
+    //the codes of the events
+    static final int START_WAVE = 1, INCREASE_TIMESCALE = 2, DECREASE_TIMESCALE = 3, START_PLACING = 4, PLACE_TOWER = 5, STOP_PLACING = 6, CHECKSUM = 7;
+    //the number of ticks between two checksums (a second of game time at 1x)
+    static final int CHECKSUM_TICKS = GameSimulation.TICK_RATE;
+
+    /*
+    simulation: the game being recorded
+    out: the log, null once writing to it has failed
+    lastTick: the tick of the last event written
+    nextChecksum: the tick from which the next checksum is written
+     */
+    private final GameSimulation simulation;
+    private DataOutputStream out;
+    private long lastTick, nextChecksum;
+
+    /**
+     * @param filename: the file the log is written to (replaced if it exists)
+     * @param simulation: the game being recorded, it must not have been ticked yet
+     * @param wavesFile: the filename of the file that contains wave information the game was created with
+     * @throws IOException if the file can't be created
+     */
+    public ReplayRecorder(String filename, GameSimulation simulation, String wavesFile) throws IOException {
+        this.simulation = simulation;
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+        this.out.writeInt(MAGIC);
+        this.out.writeInt(VERSION);
+        this.out.writeLong(simulation.getSeed());
+        this.out.writeInt(simulation.getLevel());
+        this.out.writeUTF(wavesFile);
+        this.out.flush();
+        this.lastTick = simulation.getTicks();
+        this.nextChecksum = this.lastTick + CHECKSUM_TICKS;
+    }
+
+    /**
+     * method called when the player presses S
+     */
+    public void startWave(){ this.write(START_WAVE, -1, null); }
+
+    /**
+     * method called when the player presses L
+     */
+    public void increaseTimescale(){ this.write(INCREASE_TIMESCALE, -1, null); }
+
+    /**
+     * method called when the player presses K
+     */
+    public void decreaseTimescale(){ this.write(DECREASE_TIMESCALE, -1, null); }
+
+    /**
+     * method called when the player starts placing (buying) a tower
+     * @param type: the type of tower being placed
+     */
+    public void startPlacing(String type){ this.write(START_PLACING, Tower.typeIndex(type), null); }
+
+    /**
+     * method called when the player places a tower
+     * @param type: the type of tower placed
+     * @param position: the position it was placed at
+     */
+    public void placeTower(String type, Point position){ this.write(PLACE_TOWER, Tower.typeIndex(type), position); }
+
+    /**
+     * method called when the player stops placing a tower without placing it (a right click, or the level changing)
+     */
+    public void stopPlacing(){ this.write(STOP_PLACING, -1, null); }
+
+    /**
+     * method called after the ticks of a frame to write a checksum of the game's state once every CHECKSUM_TICKS ticks
+     */
+    public void checkpoint(){
+        if(this.simulation.getTicks() >= this.nextChecksum){
+            this.nextChecksum = this.simulation.getTicks() + CHECKSUM_TICKS;
+            this.write(CHECKSUM, -1, null);
+        }
+    }
+
+    /**
+     * helper method to write an event
+     * the log is flushed after every event so a game that crashes still leaves a log that can be replayed up to the crash
+     * @param event: the code of the event
+     * @param tower: the index of the tower's type in Tower.TYPES (for START_PLACING and PLACE_TOWER)
+     * @param position: the position the tower was placed at (for PLACE_TOWER)
+     */
+    private void write(int event, int tower, Point position){
+        if(this.out == null){
+            return;
+        }
+        try{
+            this.out.writeByte(event);
+            //the ticks since the last event 7 bits at a time, the top bit of a byte is set when more bytes follow
+            long ticks = this.simulation.getTicks() - this.lastTick;
+            this.lastTick = this.simulation.getTicks();
+            while(ticks >= 0x80){
+                this.out.writeByte((int)(ticks & 0x7f) | 0x80);
+                ticks >>>= 7;
+            }
+            this.out.writeByte((int)ticks);
+
+            switch(event){
+                case START_PLACING:
+                    this.out.writeByte(tower);
+                    break;
+                case PLACE_TOWER:
+                    this.out.writeByte(tower);
+                    this.out.writeDouble(position.x);
+                    this.out.writeDouble(position.y);
+                    break;
+                case CHECKSUM:
+                    this.out.writeLong(this.simulation.getChecksum());
+                    break;
+            }
+            this.out.flush();
+        }
+        catch(IOException e){
+            this.fail(e);
+        }
+    }
+
+    /**
+     * helper method to stop recording once the log can't be written (the game carries on without a replay)
+     */
+    private void fail(IOException e){
+        e.printStackTrace();
+        try{
+            this.out.close();
+        }
+        catch(IOException ignored){
+            //the log is already broken, there is nothing more to do with it
+        }
+        this.out = null;
+    }
+}
@@ -0,0 +1,99 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * SaveGame class writes a game in progress to a small binary file and resumes it from that file
+ * the file holds a snapshot of the game's state (see GameSimulation.saveState): the counters, the random number generator,
+ * the live slicers, the spawn cursor of the wave and the towers with their ammo
+ * the map, path and waves aren't in the file, they come from the LevelLoader and WaveTable caches, so loading is only a file read
+ *
+ * the file is big-endian: MAGIC, VERSION, the length of the snapshot, the CRC32 of the snapshot and then the snapshot
+ */
+public final class SaveGame {
+
+    //static attributes
+    //the first 4 bytes of a save ("SDSV") and the version of the format, a save of another version isn't loaded
+    static final int MAGIC = 0x53445356;
+    static final int VERSION = 1;
+    //the number of bytes before the snapshot
+    private static final int HEADER_BYTES = 16;
+
+    private SaveGame(){}
+
+    /**
+     * method to write a game to a save file
+     * the save replaces the file in one step (see AtomicFile), so a game that crashes while saving never leaves half a save
+     * @param simulation: the game to save
+     * @param file: the save file (replaced if it exists)
+     * @throws IOException if the file can't be written
+     */
+    public static void save(GameSimulation simulation, File file) throws IOException {
+        //writing the snapshot after the header, the buffer is doubled until the snapshot fits
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 12);
+        while(true){
+            try{
+                buffer.position(HEADER_BYTES);
+                simulation.saveState(buffer);
+                break;
+            }
+            catch(BufferOverflowException e){
+                buffer = ByteBuffer.allocate(2*buffer.capacity());
+            }
+        }
+        int length = buffer.position() - HEADER_BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_BYTES, length);
+        buffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, length).putInt(12, (int)crc.getValue());
+        buffer.flip();
+
+        AtomicFile.write(file, buffer);
+    }
+
+    /**
+     * method to put a game in the state of a save file
+     * the whole file is read and checked before the game is touched, so a save that can't be loaded leaves the game as it was
+     * @param simulation: the game to restore, created with the same waves file as the saved game
+     * @param file: the save file
+     * @throws IOException if the file can't be read, isn't a save of this version or is corrupt
+     */
+    public static void load(GameSimulation simulation, File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        ByteBuffer buffer;
+        try{
+            long size = channel.size();
+            if(size < HEADER_BYTES || size > Integer.MAX_VALUE){
+                throw new IOException(file + " is not a save");
+            }
+            buffer = ByteBuffer.allocate((int)size);
+            while(buffer.hasRemaining()){
+                if(channel.read(buffer) == -1){
+                    throw new IOException(file + " was cut short while it was read");
+                }
+            }
+        }
+        finally{
+            channel.close();
+        }
+
+        if(buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION){
+            throw new IOException(file + " is not a save of version " + VERSION);
+        }
+        int length = buffer.getInt(8);
+        if(length != buffer.capacity() - HEADER_BYTES){
+            throw new IOException(file + " is " + buffer.capacity() + " bytes but its snapshot is " + length + " bytes");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_BYTES, length);
+        if((int)crc.getValue() != buffer.getInt(12)){
+            throw new IOException(file + " is corrupt (its checksum doesn't match)");
+        }
+
+        buffer.position(HEADER_BYTES);
+        simulation.restoreState(buffer);
+    }
+}
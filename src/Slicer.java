@@ -1,7 +1,5 @@
-import bagel.DrawOptions;
-import bagel.Image;
-import bagel.util.Point;
 import bagel.util.Rectangle;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -20,18 +18,26 @@ public class Slicer implements Attackable{
     wave: the wave the slicer belongs to
     width: the actual width of the slicer image (excluding white space) used to make its bounding box
     height: the actual height of the slicer image (excluding white space) used to make its bounding box
-    location: the location of the slicer
+    x, y: the location of the slicer (updated in place as it moves)
+    pathIndex: the index of the point of the path the slicer is standing on (locationIndex is already the index of its next point)
+    previousX, previousY: the location of the slicer at the start of the current tick, used to interpolate its drawn position
+    onPath: whether the slicer has been given a location on the path (false until it first moves)
+    angle: the angle in radians the slicer is facing at its location
+    template: the SlicerType this slicer was created from
     type: the type of slicer (slicer, superslicer, megaslicer, apexslicer)
-    children: a list of all the children of the slicer
-    bounding: the bounding box of the slicer
+    children: a list of all the children of the slicer (empty until the slicer is eliminated)
+    slot: the slot of the slicer in the SlicerSet of live slicers (-1 if it isn't live)
      */
     private double health, speed;
     private int locationIndex, spawnDelayF, reward, penalty, wave, width, height;
-    private Point location;
-    private final Image image;
+    private double x, y, previousX, previousY;
+    private int pathIndex;
+    private boolean onPath = false;
+    private double angle;
+    private final SlicerType template;
     private final String type;
     private List<Slicer> children;
-    private Rectangle bounding;
+    private int slot = -1;
 
     /**
      * @param type: the type of slicer (slicer, superslicer, apexslicer, megaslicer)
@@ -39,56 +45,26 @@ public class Slicer implements Attackable{
      * @param spawnDelayF: the spawnDelay in frames of the slicer
      */
     public Slicer(String type, int wave, int spawnDelayF) {
-        this.type = type;
-        switch(type){
-            case "slicer":
-                this.speed = 2.0;
-                this.health = 1.0;
-                this.reward = 2;
-                this.penalty = 1;
-                this.width = 48;
-                this.height = 58;
-                this.children = Collections.<Slicer>emptyList();
-                break;
-            case "superslicer":
-                this.speed = 1.5;
-                this.health = 1.0;
-                this.reward = 15;
-                this.width = 48;
-                this.height = 58;
-                this.children = new ArrayList<Slicer>(2);
-                for(int i = 0; i < 2; i++)
-                    this.children.add(new Slicer("slicer", wave, 0));
-                for(Slicer s: this.children)
-                    this.penalty += s.getPenalty();
-                break;
-            case "megaslicer":
-                this.speed = 1.5;
-                this.health = 2.0;
-                this.reward = 10;
-                this.width = 24;
-                this.height = 30;
-                this.children = new ArrayList<Slicer>(2);
-                for(int i = 0; i < 2; i++)
-                    this.children.add(new Slicer("superslicer", wave,0));
-                for(Slicer s: this.children)
-                    this.penalty += s.getPenalty();
-                break;
-            case "apexslicer":
-                this.speed = 0.75;
-                this.health = 25.0;
-                this.reward = 150;
-                this.width = 48;
-                this.height = 58;
-                this.children = new ArrayList<Slicer>(4);
-                for(int i = 0; i < 4; i++)
-                    this.children.add(new Slicer("megaslicer", wave,0));
-                for(Slicer s: this.children)
-                    this.penalty += s.getPenalty();
-                break;
-        }
+        this(SlicerType.fromName(type), wave, spawnDelayF);
+    }
+
+    /**
+     * @param template: the SlicerType template the slicer's stats are copied from
+     * @param wave: the wave which the slicer belongs to
+     * @param spawnDelayF: the spawnDelay in frames of the slicer
+     */
+    public Slicer(SlicerType template, int wave, int spawnDelayF) {
+        this.template = template;
+        this.type = template.getImageName();
+        this.speed = template.getSpeed();
+        this.health = template.getHealth();
+        this.reward = template.getReward();
+        this.penalty = template.getPenalty();
+        this.width = template.getWidth();
+        this.height = template.getHeight();
+        //children are only created when the slicer is eliminated (see deductHealth)
+        this.children = Collections.<Slicer>emptyList();
         this.spawnDelayF = spawnDelayF;
-        this.image = new Image("res/images/" + type + ".png");
         this.wave = wave;
     }
 
@@ -102,40 +78,47 @@ public class Slicer implements Attackable{
 
         //if the deduction forced the health to hit 0 or below =>
         //the locationIndex is set to -1 so the slicer disappears off the screen
-        //if the slicer has children then they will each be placed at the location of their parent slicer (slightly spread apart)
+        //if the slicer's template has children then they are created now and each placed at the location of their parent slicer (slightly spread apart)
         if(this.health <= 0){
             this.health = 0;
-            int i = 0;
-            for(Slicer s: children){
-                if(this.locationIndex - i >= 0) {
-                    s.setLocationIndex(this.locationIndex - i);
-                }
-                else{
-                    s.setLocationIndex(this.locationIndex);
+            if(this.template.getNumChildren() > 0){
+                this.children = new ArrayList<Slicer>(this.template.getNumChildren());
+                int offset = 0;
+                for(int i = 0; i < this.template.getNumChildren(); i++){
+                    Slicer s = new Slicer(this.template.getChildType(), this.wave, 0);
+                    if(this.locationIndex - offset >= 0) {
+                        s.setLocationIndex(this.locationIndex - offset);
+                    }
+                    else{
+                        s.setLocationIndex(this.locationIndex);
+                    }
+                    this.children.add(s);
+                    offset += 100;
                 }
-                i+=100;
             }
             this.locationIndex = -1;
         }
     }
 
     /**
-     * a method to draw a slicer on the screen
-     * @param timescaleMultiplier: the timeScaleMultiplier from ShadowDefend used to affect movement speed
-     * @param path: the Path along the polylines of the map from ShadowDefend
+     * a method to move a slicer along the path
+     * @param timescaleMultiplier: the timeScaleMultiplier from the GameSimulation used to affect movement speed
+     * @param path: the Path along the polylines of the map from the GameSimulation
      */
-    public void drawSlicer(int timescaleMultiplier, Path path){
+    public void move(int timescaleMultiplier, Path path){
         //if the locationIndex is not -1 then the slicer is somewhere on the path
         if(this.locationIndex != - 1){
-            //if the locationIndex is a valid pathIndex then we get the slicers location, bounding, and draw it on the screen
+            //if the locationIndex is a valid pathIndex then we get the slicers location and angle (its bounding box follows its location)
             if(locationIndex < path.getPathLength()) {
-                this.location = path.getPath().get(locationIndex);
-                this.bounding = new Rectangle(this.location.x - this.width/2, this.location.y - this.height/2, this.width, this.height);
-
-                //drawing the slicer
-                this.image.draw(location.x,
-                        location.y,
-                        new DrawOptions().setRotation(path.getPathAngle().get(locationIndex)));
+                this.x = path.getX(locationIndex);
+                this.y = path.getY(locationIndex);
+                this.angle = path.getAngle(locationIndex);
+                this.pathIndex = locationIndex;
+                //a slicer that just appeared on the path has no previous location so it is drawn where it is
+                if(!this.onPath){
+                    this.savePosition();
+                    this.onPath = true;
+                }
 
                 //we update the location index based on the speed and timeScaleMultiplier
                 //I multiply by 4 because each point in the path is 0.25px apart and we want to work in 1px increments
@@ -152,6 +135,50 @@ public class Slicer implements Attackable{
 
     }
 
+    /**
+     * method to write the state of this slicer to a snapshot (its stats come from its template so they aren't written)
+     * a slicer eliminated by a tower keeps its children until the next tick moves them onto the live slicers, so they are written with it
+     * (once it has left the live slicers its children are live slicers themselves, so a projectile's old target is written without them)
+     * @param out: the buffer the state is written to
+     */
+    public void save(ByteBuffer out){
+        out.put((byte)this.template.ordinal());
+        out.putInt(this.wave).putInt(this.spawnDelayF).putInt(this.locationIndex).putInt(this.pathIndex);
+        out.putDouble(this.health).putDouble(this.x).putDouble(this.y).putDouble(this.previousX).putDouble(this.previousY);
+        out.putDouble(this.angle).put((byte)(this.onPath ? 1 : 0));
+        int childCount = this.getSlot() >= 0 ? this.children.size() : 0;
+        out.putInt(childCount);
+        for(int i = 0; i < childCount; i++){
+            this.children.get(i).save(out);
+        }
+    }
+
+    /**
+     * method to create a slicer from a snapshot written by save
+     * @param in: the buffer the state is read from
+     * @return a slicer with the saved state (it isn't in any SlicerSet yet)
+     */
+    public static Slicer load(ByteBuffer in){
+        Slicer s = new Slicer(SlicerType.fromOrdinal(in.get()), in.getInt(), in.getInt());
+        s.locationIndex = in.getInt();
+        s.pathIndex = in.getInt();
+        s.health = in.getDouble();
+        s.x = in.getDouble();
+        s.y = in.getDouble();
+        s.previousX = in.getDouble();
+        s.previousY = in.getDouble();
+        s.angle = in.getDouble();
+        s.onPath = in.get() == 1;
+        int childCount = in.getInt();
+        if(childCount > 0){
+            s.children = new ArrayList<Slicer>(childCount);
+            for(int i = 0; i < childCount; i++){
+                s.children.add(load(in));
+            }
+        }
+        return s;
+    }
+
     //Getters
 
     /**
@@ -183,14 +210,80 @@ public class Slicer implements Attackable{
     }
 
     /**
-     * @return the Point of this slicer on the screen
+     * @return the index of the point of the path this slicer is standing on (only meaningful once the slicer is on the path)
+     */
+    public int getPathIndex() {
+        return pathIndex;
+    }
+
+    /**
+     * @return the x coordinate of this slicer on the screen
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * @return the y coordinate of this slicer on the screen
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * method to save the slicer's current location as its previous location (called at the start of each tick)
+     */
+    public void savePosition() {
+        this.previousX = this.x;
+        this.previousY = this.y;
+    }
+
+    /**
+     * @param alpha: how far the current time is between the last tick (0) and the next tick (1)
+     * @return the x coordinate the slicer is drawn at, between its previous and current location
      */
-    public Point getLocation() {
-        return location;
+    public double getDrawX(double alpha) {
+        return this.previousX + (this.x - this.previousX)*alpha;
     }
 
     /**
-     * @return a list of all the children slicers of this slicer
+     * @param alpha: how far the current time is between the last tick (0) and the next tick (1)
+     * @return the y coordinate the slicer is drawn at, between its previous and current location
+     */
+    public double getDrawY(double alpha) {
+        return this.previousY + (this.y - this.previousY)*alpha;
+    }
+
+    /**
+     * @return whether the slicer has a location on the path (slicers that haven't moved yet have no location or bounding box)
+     */
+    public boolean isOnPath() {
+        return onPath;
+    }
+
+    /**
+     * @return the angle in radians this slicer is facing
+     */
+    public double getAngle() {
+        return angle;
+    }
+
+    /**
+     * @return the SlicerType this slicer was created from
+     */
+    public SlicerType getTemplate() {
+        return template;
+    }
+
+    /**
+     * @return the type of this slicer (slicer, superslicer, megaslicer, apexslicer)
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return a list of all the children slicers of this slicer (empty until the slicer has been eliminated)
      */
     public List<Slicer> getChildren() {
         return children;
@@ -204,9 +297,38 @@ public class Slicer implements Attackable{
     }
 
     /**
-     * @return the Rectangle corresponding to the bounding box of this slicer
+     * method to check whether the slicer's bounding box overlaps an area (touching edges don't count, like Rectangle.intersects)
+     * @param left, top, right, bottom: the edges of the area
+     * @return whether the slicer is on the path and its bounding box overlaps the area
+     */
+    public boolean intersects(double left, double top, double right, double bottom) {
+        //the bounding box is centred on the location and its size is the size of the slicer image excluding white space
+        double boxLeft = this.x - this.width/2, boxTop = this.y - this.height/2;
+        return this.onPath && boxLeft < right && boxLeft + this.width > left && boxTop < bottom && boxTop + this.height > top;
+    }
+
+    /**
+     * @param r: a Rectangle on the screen (e.g. a tower's range)
+     * @return whether the slicer is on the path and its bounding box overlaps r (touching edges don't count)
+     */
+    public boolean intersects(Rectangle r) {
+        return this.intersects(r.left(), r.top(), r.right(), r.bottom());
+    }
+
+    /**
+     * @param x: the x coordinate of a point on the screen
+     * @param y: the y coordinate of a point on the screen
+     * @return whether the slicer is on the path and the point is inside its bounding box (edges included, like Rectangle.intersects(Point))
+     */
+    public boolean contains(double x, double y) {
+        double boxLeft = this.x - this.width/2, boxTop = this.y - this.height/2;
+        return this.onPath && x >= boxLeft && x <= boxLeft + this.width && y >= boxTop && y <= boxTop + this.height;
+    }
+
+    /**
+     * @return the slot of this slicer in the SlicerSet of live slicers (-1 if it isn't live)
      */
-    public Rectangle getBounding() { return this.bounding; }
+    public int getSlot() { return this.slot; }
 
     //Setters
 
@@ -223,4 +345,11 @@ public class Slicer implements Attackable{
     public void setLocationIndex(int locationIndex) {
         this.locationIndex = locationIndex;
     }
+
+    /**
+     * @param slot: the new slot of this slicer in a SlicerSet (only the SlicerSet should change it)
+     */
+    void setSlot(int slot) {
+        this.slot = slot;
+    }
 }
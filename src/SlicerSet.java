@@ -0,0 +1,104 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * SlicerSet class is the container of the live slicers of a wave with O(1) spawning and removal
+ * each slicer remembers its slot in the set, a slicer is removed by moving the last slicer into its slot (so the order is not kept)
+ * it is a List so towers, ammo and the renderer can iterate it like the wave list it replaces
+ */
+public class SlicerSet extends AbstractList<Slicer> implements RandomAccess {
+
+    /*
+    slicers: the slicers in the set, slots [0, size) are used
+    size: the number of slicers in the set
+     */
+    private Slicer[] slicers = new Slicer[64];
+    private int size = 0;
+
+    /**
+     * method to add a slicer to the end of the set
+     * @param s: the slicer to be added (it must not already be in a set)
+     * @return true
+     */
+    @Override
+    public boolean add(Slicer s){
+        if(this.size == this.slicers.length){
+            this.slicers = Arrays.copyOf(this.slicers, this.size*2);
+        }
+        s.setSlot(this.size);
+        this.slicers[this.size++] = s;
+        this.modCount++;
+        return true;
+    }
+
+    /**
+     * method to remove the slicer in a slot, the last slicer is moved into the slot
+     * @param slot: the slot of the slicer to be removed
+     * @return the removed slicer
+     */
+    public Slicer removeSlot(int slot){
+        if(slot < 0 || slot >= this.size){
+            throw new IndexOutOfBoundsException("slot " + slot + ", size " + this.size);
+        }
+        Slicer removed = this.slicers[slot];
+        Slicer last = this.slicers[--this.size];
+        this.slicers[slot] = last;
+        last.setSlot(slot);
+        this.slicers[this.size] = null;
+        removed.setSlot(-1);
+        this.modCount++;
+        return removed;
+    }
+
+    /**
+     * method to remove a slicer from the set using the slot it remembers
+     * @param o: the slicer to be removed
+     * @return whether the slicer was in the set
+     */
+    @Override
+    public boolean remove(Object o){
+        if(!(o instanceof Slicer)){
+            return false;
+        }
+        int slot = ((Slicer)o).getSlot();
+        if(slot < 0 || slot >= this.size || this.slicers[slot] != o){
+            return false;
+        }
+        this.removeSlot(slot);
+        return true;
+    }
+
+    /**
+     * method to remove every slicer from the set
+     */
+    @Override
+    public void clear(){
+        for(int i = 0; i < this.size; i++){
+            this.slicers[i].setSlot(-1);
+            this.slicers[i] = null;
+        }
+        this.size = 0;
+        this.modCount++;
+    }
+
+    //Getters
+
+    /**
+     * @param slot: the slot of the slicer
+     * @return the slicer in the slot
+     */
+    @Override
+    public Slicer get(int slot){
+        if(slot >= this.size){
+            throw new IndexOutOfBoundsException("slot " + slot + ", size " + this.size);
+        }
+        return this.slicers[slot];
+    }
+
+    /**
+     * @return the number of slicers in the set
+     */
+    @Override
+    public int size(){ return this.size; }
+}
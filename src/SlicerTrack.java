@@ -0,0 +1,112 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SlicerTrack class sorts the targetable slicers of a wave by how far along the path they are, separately for each SlicerType
+ * it is rebuilt once per frame and lets a tower only look at the slicers standing in the intervals of the path its range covers (see PathCoverage)
+ */
+public class SlicerTrack {
+
+    //static attributes
+    //the slicer types, kept so finding a target doesn't copy SlicerType.values() every time
+    private static final SlicerType[] TYPES = SlicerType.values();
+
+    /*
+    wave: the list of slicers the track was last rebuilt from
+    keys: for each SlicerType (indexed by ordinal) the targetable slicers of that type sorted in path order,
+    each key is a slicer's path index in the high 32 bits and its index in the wave list in the low 32 bits
+    (so slicers on the same point are in the order of their slots in the SlicerSet, which swap-removes, so that isn't spawn order)
+    counts: the number of keys of each SlicerType
+     */
+    private List<Slicer> wave;
+    private final long[][] keys = new long[TYPES.length][64];
+    private final int[] counts = new int[TYPES.length];
+
+    /**
+     * method to sort the targetable slicers of a wave (on the path, not eliminated, not finished) by their path index
+     * @param wave: the list of slicers in the current wave
+     */
+    public void rebuild(List<Slicer> wave){
+        this.wave = wave;
+        for(int t = 0; t < this.counts.length; t++){
+            this.counts[t] = 0;
+        }
+
+        for(int i = 0; i < wave.size(); i++){
+            Slicer s = wave.get(i);
+            //only slicers currently on the path and not eliminated or finished the path can be targeted
+            if(s.isOnPath() && s.getHealth() > 0 && s.getLocationIndex() != -1){
+                int t = s.getTemplate().ordinal();
+                if(this.counts[t] == this.keys[t].length){
+                    this.keys[t] = Arrays.copyOf(this.keys[t], 2*this.keys[t].length);
+                }
+                this.keys[t][this.counts[t]++] = ((long)s.getPathIndex() << 32) | i;
+            }
+        }
+
+        //every key is different (they hold the slicer's index) so the sorted order doesn't depend on the order they were added in
+        for(int t = 0; t < this.counts.length; t++){
+            Arrays.sort(this.keys[t], 0, this.counts[t]);
+        }
+    }
+
+    /**
+     * method to find the best target for a tower among the targetable slicers standing on the part of the path its range covers
+     * @param coverage: the intervals of the path covered by the tower's range
+     * @param policy: the rule used to pick between the slicers in range
+     * @param fromX, fromY: the location of the tower
+     * @return the slicer with the highest score under the policy, or null if there are no slicers in range
+     */
+    public Slicer findTarget(PathCoverage coverage, TargetPolicy policy, double fromX, double fromY){
+        //score tracks the highest score of a valid target, best tracks the index in the wave list of that target
+        double score = -Double.MAX_VALUE;
+        int best = -1;
+
+        for(SlicerType type: TYPES){
+            long[] typeKeys = this.keys[type.ordinal()];
+            int count = this.counts[type.ordinal()];
+            if(count == 0){
+                continue;
+            }
+
+            int[] intervals = coverage.getIntervals(type);
+            for(int k = 0; k < intervals.length; k += 2){
+                //the keys of the slicers standing on the interval are consecutive, the first is found with a binary search
+                long last = ((long)intervals[k + 1] << 32) | 0xffffffffL;
+                for(int i = this.firstKey(typeKeys, count, (long)intervals[k] << 32); i < count && typeKeys[i] <= last; i++){
+                    int index = (int)typeKeys[i];
+                    Slicer s = this.wave.get(index);
+                    //a slicer may have been eliminated by another tower's ammo since the track was rebuilt so we check again
+                    if(s.getHealth() <= 0 || s.getLocationIndex() == -1){
+                        continue;
+                    }
+                    double d = policy.score(s, fromX, fromY);
+                    //on a tie the slicer in the lower slot of the wave list wins (deterministic, so replays agree, but not the first to spawn)
+                    if(d > score || (d == score && index < best)){
+                        score = d;
+                        best = index;
+                    }
+                }
+            }
+        }
+        return best == -1 ? null : this.wave.get(best);
+    }
+
+    /**
+     * helper method to find the first of the sorted keys that is not less than a key
+     * @return the index of that key, or count if every key is less than it
+     */
+    private int firstKey(long[] sorted, int count, long key){
+        int low = 0, high = count;
+        while(low < high){
+            int middle = (low + high) >>> 1;
+            if(sorted[middle] < key){
+                low = middle + 1;
+            }
+            else{
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.Locale;
+
+/**
+ * SlicerType enum is the template for each type of slicer
+ * it holds the stats shared by every slicer of a type and which slicers it splits into when it is eliminated,
+ * so a slicer's children only need to be created when it actually dies
+ */
+public enum SlicerType {
+    //speed, health, reward, width, height, childType, numChildren
+    SLICER(2.0, 1.0, 2, 48, 58, null, 0),
+    SUPERSLICER(1.5, 1.0, 15, 48, 58, SLICER, 2),
+    MEGASLICER(1.5, 2.0, 10, 24, 30, SUPERSLICER, 2),
+    APEXSLICER(0.75, 25.0, 150, 48, 58, MEGASLICER, 4);
+
+    /*
+    speed: the speed at which the slicer moves (in px/frame)
+    health: the starting health of the slicer
+    reward: the cash reward for eliminating the slicer
+    penalty: the penalty (in lives) for the slicer finishing the path without dying (the sum of its children's penalties, 1 for a slicer)
+    width: the actual width of the slicer image (excluding white space) used to make its bounding box
+    height: the actual height of the slicer image (excluding white space) used to make its bounding box
+    childType: the type of slicer this slicer splits into when eliminated (null if it doesn't split)
+    numChildren: the number of children this slicer splits into when eliminated
+    imageName: the name of the image for this type in res/images
+     */
+    private final double speed, health;
+    private final int reward, penalty, width, height, numChildren;
+    private final SlicerType childType;
+    private final String imageName;
+    //every type indexed by ordinal (values() copies the array on every call)
+    private static final SlicerType[] VALUES = values();
+
+    SlicerType(double speed, double health, int reward, int width, int height, SlicerType childType, int numChildren){
+        this.speed = speed;
+        this.health = health;
+        this.reward = reward;
+        this.width = width;
+        this.height = height;
+        this.childType = childType;
+        this.numChildren = numChildren;
+        this.penalty = childType == null ? 1 : numChildren*childType.penalty;
+        this.imageName = this.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param name: the name of the slicer type as written in the waves file (slicer, superslicer, megaslicer, apexslicer)
+     * @return the SlicerType with that name
+     */
+    public static SlicerType fromName(String name){
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * @param ordinal: the ordinal of a slicer type (how snapshots and compiled waves files store a type)
+     * @return the SlicerType with that ordinal
+     */
+    public static SlicerType fromOrdinal(int ordinal){
+        return VALUES[ordinal];
+    }
+
+    //Getters
+
+    /**
+     * @return the speed of this type of slicer in px/frame
+     */
+    public double getSpeed() { return speed; }
+
+    /**
+     * @return the starting health of this type of slicer
+     */
+    public double getHealth() { return health; }
+
+    /**
+     * @return the reward value in $ of this type of slicer
+     */
+    public int getReward() { return reward; }
+
+    /**
+     * @return the penalty value in lives of this type of slicer
+     */
+    public int getPenalty() { return penalty; }
+
+    /**
+     * @return the width of this type of slicer's bounding box
+     */
+    public int getWidth() { return width; }
+
+    /**
+     * @return the height of this type of slicer's bounding box
+     */
+    public int getHeight() { return height; }
+
+    /**
+     * @return the type of slicer this type splits into (null if it doesn't split)
+     */
+    public SlicerType getChildType() { return childType; }
+
+    /**
+     * @return the number of children this type splits into
+     */
+    public int getNumChildren() { return numChildren; }
+
+    /**
+     * @return the name of the image for this type in res/images
+     */
+    public String getImageName() { return imageName; }
+}
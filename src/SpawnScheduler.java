@@ -0,0 +1,78 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * SpawnScheduler class holds the slicers of a wave that haven't spawned yet sorted by the frame they spawn on
+ * a cursor moves along the timeline as frames pass, so each frame only looks at the slicers that are due instead of the whole wave
+ */
+public class SpawnScheduler {
+
+    //static attributes
+    //orders slicers by the frame they spawn on (the sort is stable so slicers spawning on the same frame keep the order of the waves file)
+    private static final Comparator<Slicer> BY_SPAWN_FRAME = new Comparator<Slicer>() {
+        @Override
+        public int compare(Slicer a, Slicer b) {
+            return Integer.compare(a.getSpawnDelayF(), b.getSpawnDelayF());
+        }
+    };
+
+    /*
+    timeline: the slicers of the wave sorted by their spawnDelayF
+    cursor: the index in timeline of the next slicer to spawn
+     */
+    private final Slicer[] timeline;
+    private int cursor = 0;
+
+    /**
+     * @param wave: the slicers of the wave in the order they appear in the waves file
+     */
+    public SpawnScheduler(List<Slicer> wave){
+        this.timeline = wave.toArray(new Slicer[wave.size()]);
+        Arrays.sort(this.timeline, BY_SPAWN_FRAME);
+    }
+
+    /**
+     * method to spawn every slicer whose spawn delay has passed
+     * @param framesPassed: the number of frames that have passed since the wave was started
+     * @param live: the slicers currently on the path, the spawned slicers are added to the end of it
+     * @return the number of slicers spawned
+     */
+    public int release(int framesPassed, List<Slicer> live){
+        int start = this.cursor;
+        while(this.cursor < this.timeline.length && this.timeline[this.cursor].getSpawnDelayF() <= framesPassed){
+            live.add(this.timeline[this.cursor]);
+            //the scheduler forgets spawned slicers so they can be garbage collected once they leave the live slicers
+            this.timeline[this.cursor] = null;
+            this.cursor++;
+        }
+        return this.cursor - start;
+    }
+
+    /**
+     * method to forget the first slicers of the timeline as if they had spawned (used when a snapshot of a wave is restored)
+     * @param cursor: the number of slicers that had spawned, the cursor of the scheduler the snapshot was taken from
+     */
+    public void skip(int cursor){
+        while(this.cursor < cursor){
+            this.timeline[this.cursor++] = null;
+        }
+    }
+
+    //Getters
+
+    /**
+     * @return the number of slicers of the wave that have spawned
+     */
+    public int getCursor(){ return this.cursor; }
+
+    /**
+     * @return whether every slicer of the wave has spawned
+     */
+    public boolean isExhausted(){ return this.cursor == this.timeline.length; }
+
+    /**
+     * @return the number of slicers that haven't spawned yet
+     */
+    public int getPendingCount(){ return this.timeline.length - this.cursor; }
+}
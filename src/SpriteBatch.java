@@ -0,0 +1,100 @@
+import bagel.DrawOptions;
+import bagel.Image;
+
+import java.util.Arrays;
+
+/**
+ * SpriteBatch class collects the sprites of the slicers, towers and ammo drawn in a frame and draws them grouped by texture
+ * each sprite is stored as its position and rotation in a primitive buffer per texture, then flush draws one texture's sprites after another
+ * bagel only rebinds a texture when it differs from the last one drawn, so a flush binds each texture once instead of once per entity
+ * textures are drawn in the order of SPRITES, so within a batch every sprite of a texture is drawn over the sprites of earlier textures
+ */
+public class SpriteBatch {
+
+    //static attributes
+    //the images in res/images that can be batched, in the order their sprites are layered when a batch is flushed
+    static final String[] SPRITES = {"slicer", "superslicer", "megaslicer", "apexslicer",
+            "tank", "supertank", "airsupport", "explosive", "tank_projectile", "supertank_projectile"};
+    //the number of floats stored per sprite (x, y, rotation)
+    private static final int STRIDE = 3;
+
+    /*
+    textures: the shared Image of each sprite, indexed like SPRITES
+    buffers: the x, y and rotation of the sprites added to the batch since the last flush, one buffer per texture
+    counts: the number of sprites in each buffer
+    rotation: the DrawOptions used for every sprite, its rotation is set before each draw
+    lastName, lastTexture: the name of the last sprite added and its texture, consecutive sprites of the same entity type skip the lookup
+     */
+    private final Image[] textures = new Image[SPRITES.length];
+    private final float[][] buffers = new float[SPRITES.length][];
+    private final int[] counts = new int[SPRITES.length];
+    private final DrawOptions rotation = new DrawOptions();
+    private String lastName;
+    private int lastTexture;
+
+    /**
+     * creates a batch with an empty buffer for every sprite, loading the textures of the sprites from res/images
+     */
+    public SpriteBatch(){
+        for(int i = 0; i < SPRITES.length; i++){
+            this.textures[i] = AssetRegistry.getImageByName(SPRITES[i]);
+            this.buffers[i] = new float[16*STRIDE];
+        }
+    }
+
+    /**
+     * method to add a sprite to the batch, it is drawn by the next call to flush
+     * @param name: the name of the sprite's image in res/images
+     * @param x: the x coordinate of the centre of the sprite
+     * @param y: the y coordinate of the centre of the sprite
+     * @param angle: the rotation of the sprite in radians
+     * @throws IllegalArgumentException if the image is not one of the SPRITES
+     */
+    public void add(String name, double x, double y, double angle){
+        int texture = textureOf(name);
+
+        //the buffer is doubled when it is full so it grows to the largest wave drawn and is then reused every frame
+        float[] buffer = this.buffers[texture];
+        int offset = this.counts[texture]*STRIDE;
+        if(offset == buffer.length){
+            buffer = Arrays.copyOf(buffer, 2*buffer.length);
+            this.buffers[texture] = buffer;
+        }
+        buffer[offset] = (float)x;
+        buffer[offset + 1] = (float)y;
+        buffer[offset + 2] = (float)angle;
+        this.counts[texture]++;
+    }
+
+    /**
+     * method to draw every sprite added since the last flush, one texture at a time, and empty the batch
+     */
+    public void flush(){
+        for(int i = 0; i < SPRITES.length; i++){
+            Image texture = this.textures[i];
+            float[] buffer = this.buffers[i];
+            for(int offset = 0; offset < this.counts[i]*STRIDE; offset += STRIDE){
+                texture.draw(buffer[offset], buffer[offset + 1], this.rotation.setRotation(buffer[offset + 2]));
+            }
+            this.counts[i] = 0;
+        }
+    }
+
+    /**
+     * helper method to find the index of a sprite's texture
+     * the name is compared by reference first since entities of the same type share the same type string
+     */
+    private int textureOf(String name){
+        if(name == this.lastName){
+            return this.lastTexture;
+        }
+        for(int i = 0; i < SPRITES.length; i++){
+            if(SPRITES[i].equals(name)){
+                this.lastName = name;
+                this.lastTexture = i;
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Not a batched sprite " + name);
+    }
+}
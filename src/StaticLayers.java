@@ -0,0 +1,174 @@
+import bagel.Image;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * StaticLayers class composes the parts of the screen that never change (the tiles of a level, the buy panel and its purchase items)
+ * into a single texture each, so they are drawn with one draw call per frame instead of one per tile or image
+ * a layer is composed once and then shared, and the next level's background is composed on the LevelLoader's thread while a level is played
+ * the images are composed pixel by pixel (without java.awt.Graphics) so AWT's toolkit is never started alongside the game's window
+ */
+public final class StaticLayers {
+
+    /*
+    layers: the composed textures keyed by what they were composed from (the tmx file of a map, or the name of an image layer)
+     */
+    private static final Map<String, Image> layers = new HashMap<String, Image>();
+
+    private StaticLayers(){}
+
+    /**
+     * method to get the texture of all the tiles of a level, composing it the first time it is requested
+     * @param tmxFile: the path of the level's tmx file
+     * @return a texture the size of the map that can be drawn from the top left corner of the screen
+     */
+    public static Image getMapLayer(String tmxFile){
+        Image layer = layers.get(tmxFile);
+        if(layer == null){
+            //only the texture is made on this thread (it needs the window's context), the image was usually composed by preloadMapLayer
+            layer = AssetRegistry.getImage(LevelLoader.get(tmxFile + "#layer", loadMapLayer(tmxFile)).getPath());
+            layers.put(tmxFile, layer);
+        }
+        return layer;
+    }
+
+    /**
+     * method to start composing the tiles of a level on the LevelLoader's thread, so getMapLayer only has to load the texture
+     * @param tmxFile: the path of the level's tmx file (a missing file isn't an error until the layer is requested with getMapLayer)
+     */
+    public static void preloadMapLayer(String tmxFile){
+        LevelLoader.preload(tmxFile + "#layer", loadMapLayer(tmxFile));
+    }
+
+    /**
+     * helper method to make the LevelLoader's load of a map's composed png
+     */
+    private static Callable<File> loadMapLayer(final String tmxFile){
+        return new Callable<File>() {
+            @Override
+            public File call() {
+                return writeLayer(composeMap(LevelLoader.getMap(tmxFile)));
+            }
+        };
+    }
+
+    /**
+     * method to get the texture of images from res/images drawn on top of each other, composing it the first time it is requested
+     * @param name: the name the layer is shared by
+     * @param width, height: the size of the layer in px
+     * @param images: the names of the images in res/images, later images are drawn over earlier ones
+     * @param lefts, tops: the position of the top left corner of each image in the layer
+     * @return a texture of the images that can be drawn from the top left corner of the layer
+     */
+    public static Image getImageLayer(String name, int width, int height, String[] images, int[] lefts, int[] tops){
+        Image layer = layers.get(name);
+        if(layer == null){
+            BufferedImage composed = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            for(int i = 0; i < images.length; i++){
+                drawOver(composed, read("res/images/" + images[i] + ".png"), lefts[i], tops[i]);
+            }
+            layer = toTexture(composed);
+            layers.put(name, layer);
+        }
+        return layer;
+    }
+
+    /**
+     * method to copy every tile of a map's first layer from its tileset into one image (what TiledMap.draw draws every frame)
+     * @param map: the map to be composed
+     * @return an image the size of the map, empty tiles are transparent
+     */
+    static BufferedImage composeMap(LevelMap map){
+        int tileWidth = map.getTileWidth(), tileHeight = map.getTileHeight();
+        BufferedImage tileset = read(map.getTilesetImage());
+        BufferedImage composed = new BufferedImage(map.getWidth()*tileWidth, map.getHeight()*tileHeight, BufferedImage.TYPE_INT_ARGB);
+
+        //the pixels of a tile are copied all at once
+        int[] pixels = new int[tileWidth*tileHeight];
+        for(int row = 0; row < map.getHeight(); row++){
+            for(int column = 0; column < map.getWidth(); column++){
+                int tile = map.getTile(column, row);
+                if(tile == -1){
+                    continue;
+                }
+                //the position of the tile in the tileset's image
+                int sourceX = map.getTilesetMargin() + (tile % map.getTilesetColumns())*(tileWidth + map.getTilesetSpacing());
+                int sourceY = map.getTilesetMargin() + (tile / map.getTilesetColumns())*(tileHeight + map.getTilesetSpacing());
+                tileset.getRGB(sourceX, sourceY, tileWidth, tileHeight, pixels, 0, tileWidth);
+                composed.setRGB(column*tileWidth, row*tileHeight, tileWidth, tileHeight, pixels, 0, tileWidth);
+            }
+        }
+        return composed;
+    }
+
+    /**
+     * helper method to draw an image over another one, blending them with the image's alpha (like drawing it on the screen)
+     * @param target: the image that is drawn on
+     * @param image: the image that is drawn
+     * @param left, top: the position of the image's top left corner in target
+     */
+    private static void drawOver(BufferedImage target, BufferedImage image, int left, int top){
+        for(int y = Math.max(0, -top); y < image.getHeight() && top + y < target.getHeight(); y++){
+            for(int x = Math.max(0, -left); x < image.getWidth() && left + x < target.getWidth(); x++){
+                int source = image.getRGB(x, y), destination = target.getRGB(left + x, top + y);
+                double sourceAlpha = (source >>> 24)/255.0, destinationAlpha = (destination >>> 24)/255.0;
+                double alpha = sourceAlpha + destinationAlpha*(1 - sourceAlpha);
+                if(alpha == 0){
+                    continue;
+                }
+                int blended = (int)Math.round(alpha*255) << 24;
+                for(int shift = 0; shift <= 16; shift += 8){
+                    double s = (source >> shift) & 0xff, d = (destination >> shift) & 0xff;
+                    blended |= (int)Math.round((s*sourceAlpha + d*destinationAlpha*(1 - sourceAlpha))/alpha) << shift;
+                }
+                target.setRGB(left + x, top + y, blended);
+            }
+        }
+    }
+
+    /**
+     * helper method to read an image file
+     * @throws IllegalArgumentException if the image can't be read
+     */
+    private static BufferedImage read(String path){
+        try{
+            BufferedImage image = ImageIO.read(new File(path));
+            if(image == null){
+                throw new IllegalArgumentException("Not an image " + path);
+            }
+            return image;
+        }
+        catch(IOException e){
+            throw new IllegalArgumentException("Could not read image " + path, e);
+        }
+    }
+
+    /**
+     * helper method to turn a composed image into a texture, bagel can only load textures from files so it is written to a temporary png first
+     */
+    private static Image toTexture(BufferedImage composed){
+        return AssetRegistry.getImage(writeLayer(composed).getPath());
+    }
+
+    /**
+     * helper method to write a composed image to a temporary png (it doesn't need the window so it can run on any thread)
+     * @throws IllegalStateException if the temporary file can't be written
+     */
+    private static File writeLayer(BufferedImage composed){
+        try{
+            File file = File.createTempFile("shadowdefend-layer", ".png");
+            file.deleteOnExit();
+            ImageIO.write(composed, "png", file);
+            return file;
+        }
+        catch(IOException e){
+            throw new IllegalStateException("Could not write a composed layer", e);
+        }
+    }
+}
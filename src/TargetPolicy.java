@@ -0,0 +1,33 @@
+/**
+ * TargetPolicy enum is the rule an ActiveTower uses to pick which of the slicers in its range it fires at
+ * each policy scores a slicer and the slicer with the highest score is targeted (ties go to the slicer that comes first in the wave list)
+ */
+public enum TargetPolicy {
+    //the slicer furthest along the path
+    FIRST,
+    //the slicer least far along the path
+    LAST,
+    //the slicer closest to the tower (the policy towers have always used, it proved to be the most effective at eliminating slicers)
+    CLOSEST,
+    //the slicer with the most health left
+    STRONGEST;
+
+    /**
+     * @param s: a slicer in the tower's range
+     * @param fromX, fromY: the location of the tower
+     * @return the score of the slicer under this policy, a higher score is a better target
+     */
+    public double score(Slicer s, double fromX, double fromY){
+        switch(this){
+            case FIRST:
+                return s.getPathIndex();
+            case LAST:
+                return -s.getPathIndex();
+            case STRONGEST:
+                return s.getHealth();
+            default:
+                //the squared distance is negated so the closest slicer has the highest score
+                return -GameMath.distanceSquared(fromX, fromY, s.getX(), s.getY());
+        }
+    }
+}
@@ -1,11 +1,10 @@
-import bagel.DrawOptions;
-import bagel.Image;
 import bagel.util.Point;
 import bagel.util.Rectangle;
-import bagel.util.Vector2;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Tower class is an abstract class that includes basic data surrounding a Tower item in ShadowDefend
@@ -13,65 +12,172 @@ import java.util.List;
  */
 public abstract class Tower {
 
+    //static attributes
+    //the width and height of every tower's image, used for its bounding box
+    static final int SIZE = 64;
+    //the types of tower the player can buy, snapshots and replays store a tower's type as its index in this array
+    public static final String[] TYPES = {"tank", "supertank", "airsupport"};
+
     /*
-    image: the tower's image
     price: the price of the tower
     direction: the direction the tower is facing
-    location: the current location of the tower
+    x, y: the current location of the tower (updated in place as airsupport moves)
+    previousX, previousY: the location of the tower at the start of the current tick, used to interpolate its drawn position
     type: the type of tower (tank, supertank, airsupport)
-    bounding: the bounding box of the tower (based on its image)
+    inPlay: whether the tower has been placed and is still in the game (airsupport leaves the game once it flies off the screen)
     ammo: a list of all the ammo that is currently active for the tower
+    spareAmmo: the ammo that has hit a target or detonated, kept so the tower can fire it again instead of creating new ammo
      */
-    private Image image;
     private int price;
     private double direction;
-    private Point location;
+    private double x, y, previousX, previousY;
     private String type;
-    private Rectangle bounding;
+    private boolean inPlay = false;
     private List<Ammo> ammo = new ArrayList<Ammo>();
+    private final ArrayDeque<Ammo> spareAmmo = new ArrayDeque<Ammo>();
 
 
     /**
      * Method used by towers to attack slicers with their ammo
      * @param slicers: a list of the slicers in the current wave, used to decide which slicer(s) to attack
+     * @param track: the SlicerTrack of the current wave's targetable slicers, used by towers that search for slicers in their range
      * @param timeScaleMultiplier: the timeScaleMultiplier from ShadowDefend used to affect movement of towers
      */
-    public abstract void attack(List<Slicer> slicers, int timeScaleMultiplier);
+    public abstract void attack(List<Slicer> slicers, SlicerTrack track, int timeScaleMultiplier);
+
+    /**
+     * method called by the GameSimulation once a tower has been placed
+     * towers that behave randomly (airsupport) keep the simulation's random number generator so a seeded game can be reproduced
+     * towers that target slicers work out which part of the path their range covers
+     * @param random: the random number generator of the GameSimulation the tower was placed in
+     * @param path: the path of the level the tower was placed in
+     */
+    public void onPlaced(Random random, Path path){}
+
+    /**
+     * method used when the tower's state is restored to create ammo of the kind the tower fires (which is then given the saved state)
+     * @return new ammo that hasn't been fired
+     */
+    protected abstract Ammo createAmmo();
+
+    /**
+     * @param type: one of the TYPES of tower
+     * @return a new tower of that type that hasn't been placed (the same tower the buy panel creates)
+     * @throws IllegalArgumentException if the player can't buy that type
+     */
+    public static Tower create(String type){
+        //a type that isn't one of the TYPES would otherwise become an ActiveTower with no range and no cooldown
+        typeIndex(type);
+        return type.equals("airsupport") ? new PassiveTower(type) : new ActiveTower(type);
+    }
 
     /**
-     * method to draw a tower in a static position with proper direction
+     * @param type: one of the TYPES of tower
+     * @return the index of the type in TYPES
+     * @throws IllegalArgumentException if the player can't buy that type
      */
-    public void drawTower(){
-        if(this.getBounding() != null) {
-            this.getImage().draw(this.location.x,
-                    this.location.y,
-                    new DrawOptions().setRotation(this.direction));
+    public static int typeIndex(String type){
+        for(int i = 0; i < TYPES.length; i++){
+            if(TYPES[i].equals(type)){
+                return i;
+            }
         }
+        throw new IllegalArgumentException("no tower type named " + type);
     }
 
     /**
-     * draws a tower's ammo on the screen and calls the damageSlicers method to inflict damage on slicers in its area
+     * method to write the state of this tower and its active ammo to a snapshot (its spare ammo is left out, it is only kept for reuse)
+     * subclasses write the state of their own attributes after this
+     * @param out: the buffer the state is written to
+     */
+    public void save(ByteBuffer out){
+        out.put((byte)typeIndex(this.type));
+        out.putDouble(this.x).putDouble(this.y).putDouble(this.previousX).putDouble(this.previousY).putDouble(this.direction);
+        out.put((byte)(this.inPlay ? 1 : 0));
+        out.putInt(this.ammo.size());
+        for(int i = 0; i < this.ammo.size(); i++){
+            this.ammo.get(i).save(out);
+        }
+    }
+
+    /**
+     * method to create a tower from a snapshot written by save
+     * @param in: the buffer the state is read from
+     * @param random: the random number generator of the GameSimulation the tower is restored in
+     * @param path: the path of the level the tower is restored in
+     * @param slicers: the live slicers of the restored game (already restored, the tower's projectiles may target them)
+     * @return a placed tower with the saved state
+     */
+    public static Tower load(ByteBuffer in, Random random, Path path, SlicerSet slicers){
+        Tower t = create(TYPES[in.get()]);
+        t.restore(in, random, path, slicers);
+        return t;
+    }
+
+    /**
+     * method to set the state of this tower from a snapshot written by save, subclasses read their own attributes after this
+     * @param in: the buffer the state is read from
+     * @param random: the random number generator of the GameSimulation the tower is restored in
+     * @param path: the path of the level the tower is restored in
+     * @param slicers: the live slicers of the restored game
+     */
+    protected void restore(ByteBuffer in, Random random, Path path, SlicerSet slicers){
+        this.x = in.getDouble();
+        this.y = in.getDouble();
+        this.previousX = in.getDouble();
+        this.previousY = in.getDouble();
+        this.direction = in.getDouble();
+        this.inPlay = in.get() == 1;
+        int ammoCount = in.getInt();
+        for(int i = 0; i < ammoCount; i++){
+            Ammo a = this.createAmmo();
+            a.restore(in, slicers);
+            this.ammo.add(a);
+        }
+    }
+
+    /**
+     * updates a tower's ammo and calls the damageSlicers method to inflict damage on slicers in its area
      * @param slicers: a list of the slicers in the current wave, used to decide which slicer(s) to attack
-     * @param timeScaleMultiplier: the timeScaleMultiplier from ShadowDefend used to affect movement of ammo
+     * @param timeScaleMultiplier: the timeScaleMultiplier from the GameSimulation used to affect movement of ammo
      */
-    public void drawAmmo(List<Slicer> slicers, int timeScaleMultiplier){
-        Iterator<Ammo> itr = this.getAmmo().iterator();
-        while(itr.hasNext()){
-            Ammo a = itr.next();
+    public void updateAmmo(List<Slicer> slicers, int timeScaleMultiplier){
+        //the ammo that is still active is compacted to the front of the list (keeping its order)
+        int kept = 0;
+        for(int i = 0; i < this.ammo.size(); i++){
+            Ammo a = this.ammo.get(i);
 
             //if the ammo has hit a target, detonated (for explosives only), or reached its range (for projectiles only)
-            //then damageSlicers will return true and the ammo should be removed
-            boolean remove = a.damageSlicers(slicers, timeScaleMultiplier);
-
-            if(remove == false) {
-                //drawing the ammo on the screen with appropriate direction
-                a.getImage().draw(a.getLocation().x, a.getLocation().y);
+            //then damageSlicers will return true and the ammo is removed and kept to be fired again
+            if(a.damageSlicers(slicers, timeScaleMultiplier)){
+                this.spareAmmo.addLast(a);
             }
-
-            if(remove){
-                itr.remove();
+            else{
+                this.ammo.set(kept++, a);
             }
         }
+        //removing the ammo that was moved to the spare ammo from the end of the list
+        while(this.ammo.size() > kept){
+            this.ammo.remove(this.ammo.size() - 1);
+        }
+    }
+
+    /**
+     * method used by towers when they fire so ammo that has been removed is reused
+     * @return ammo that this tower fired before and is no longer active, or null if there is none (the tower must create new ammo)
+     */
+    protected Ammo reuseAmmo(){
+        return this.spareAmmo.pollLast();
+    }
+
+    /**
+     * method to remove all of the tower's active ammo (e.g. at the end of a wave), the ammo is kept to be fired again
+     */
+    public void clearAmmo(){
+        for(int i = 0; i < this.ammo.size(); i++){
+            this.spareAmmo.addLast(this.ammo.get(i));
+        }
+        this.ammo.clear();
     }
 
     /**
@@ -80,35 +186,53 @@ public abstract class Tower {
      * @return a double indicating the direction in radians the tower should be facing
      */
     public double calculateDirection(Slicer target){
-        //the vector to the target
-        Vector2 toTarget = new Vector2(target.getLocation().x, target.getLocation().y);
-
-        //the vector to the tower
-        Vector2 toTower = new Vector2(this.getLocation().x, this.getLocation().y);
+        //the heading of the vector pointing from the tower to the target, we have to add pi/2 because the tank points north with direction 0
+        return GameMath.heading(target.getX() - this.x, target.getY() - this.y) + Math.PI/2;
+    }
 
-        //the vector pointing from the tower to the target
-        Vector2 betweenPoints = toTarget.sub(toTower);
+    /**
+     * @param x: the x coordinate of a point on the screen
+     * @param y: the y coordinate of a point on the screen
+     * @return whether the tower is in play and the point is inside its bounding box (edges included, like Rectangle.intersects(Point))
+     */
+    public boolean contains(double x, double y){
+        double left = this.x - SIZE/2.0, top = this.y - SIZE/2.0;
+        return this.inPlay && x >= left && x <= left + SIZE && y >= top && y <= top + SIZE;
+    }
 
-        //unit vector pointing east
-        Vector2 unitEast = new Vector2(1, 0);
-        //unit vector for the betweenPoints vector
-        Vector2 unitDir = betweenPoints.normalised();
+    /**
+     * @param r: a Rectangle on the screen (e.g. the game screen)
+     * @return whether the tower is in play and its bounding box overlaps r (touching edges don't count, like Rectangle.intersects)
+     */
+    public boolean intersects(Rectangle r){
+        double left = this.x - SIZE/2.0, top = this.y - SIZE/2.0;
+        return this.inPlay && left < r.right() && left + SIZE > r.left() && top < r.bottom() && top + SIZE > r.top();
+    }
 
-        //returning the direction, we have to add pi/2 because the tank points north with direction 0
-        return unitDir.y < 0 ? -Math.acos(unitEast.dot(unitDir)) + Math.PI/2: Math.acos(unitEast.dot(unitDir)) + Math.PI/2;
+    /**
+     * method to save the tower's current location as its previous location (called at the start of each tick and when it is placed)
+     */
+    public void savePosition(){
+        this.previousX = this.x;
+        this.previousY = this.y;
     }
 
     /**
-     * @return the Rectangle that corresponds to the towers bounding
+     * @param alpha: how far the current time is between the last tick (0) and the next tick (1)
+     * @return the x coordinate the tower is drawn at, between its previous and current location
      */
-    public Rectangle getBounding(){ return this.bounding; }
+    public double getDrawX(double alpha){ return this.previousX + (this.x - this.previousX)*alpha; }
 
     /**
-     * @return the Image that corresponds to the tower's image
+     * @param alpha: how far the current time is between the last tick (0) and the next tick (1)
+     * @return the y coordinate the tower is drawn at, between its previous and current location
      */
-    public Image getImage(){
-        return this.image;
-    }
+    public double getDrawY(double alpha){ return this.previousY + (this.y - this.previousY)*alpha; }
+
+    /**
+     * @return whether the tower has been placed and is still in the game
+     */
+    public boolean isInPlay(){ return this.inPlay; }
 
     /**
      * @return the int representing the price of the tower
@@ -118,11 +242,14 @@ public abstract class Tower {
     }
 
     /**
-     * @return the Point of the tower on the screen
+     * @return the x coordinate of the tower on the screen
      */
-    public Point getLocation(){
-        return this.location;
-    }
+    public double getX(){ return this.x; }
+
+    /**
+     * @return the y coordinate of the tower on the screen
+     */
+    public double getY(){ return this.y; }
 
     /**
      * @return the String representing the type of tower
@@ -144,25 +271,29 @@ public abstract class Tower {
     public List<Ammo> getAmmo(){ return this.ammo; }
 
     /**
+     * method to place the tower in the game at a location
      * @param location: the new Point the tower should be at
      */
     public void setLocation(Point location){
-        this.location = location;
-        this.bounding = this.image.getBoundingBoxAt(location);
+        this.setPosition(location.x, location.y);
+        this.savePosition();
+        this.inPlay = true;
     }
 
     /**
-     * @param direction: the direction the tower should be facing
+     * @param x: the new x coordinate of the tower
+     * @param y: the new y coordinate of the tower
      */
-    public void setDirection(double direction){
-        this.direction = direction;
+    public void setPosition(double x, double y){
+        this.x = x;
+        this.y = y;
     }
 
     /**
-     * @param image: the new Image for the tower
+     * @param direction: the direction the tower should be facing
      */
-    public void setImage(Image image) {
-        this.image = image;
+    public void setDirection(double direction){
+        this.direction = direction;
     }
 
     /**
@@ -180,10 +311,10 @@ public abstract class Tower {
     }
 
     /**
-     * @param bounding: the new bounding box for the tower
+     * method to take the tower out of the game (it no longer attacks or is drawn, but its active ammo still lands)
      */
-    public void setBounding(Rectangle bounding) {
-        this.bounding = bounding;
+    public void removeFromPlay() {
+        this.inPlay = false;
     }
 
     /**
@@ -0,0 +1,345 @@
+import bagel.util.Point;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * WaveBalanceRunner plays a waves file against a tower layout thousands of times with headless GameSimulations
+ * every game is seeded (so any single game can be reproduced) and the games are spread across all cores with a ForkJoinPool
+ * it reports the distribution of lives lost, cash earned and clear time for each wave of the level
+ *
+ * usage: WaveBalanceRunner wavesFile level layoutFile [games] [seed]
+ * each line of the layout file is a tower purchase: type,x,y[,wave]
+ * purchases are made in order before a wave starts (no earlier than the given wave) once the player can afford them
+ */
+public class WaveBalanceRunner {
+
+    //static attributes
+    //the number of games a fork join task plays itself instead of splitting them between two subtasks
+    private static final int GAMES_PER_TASK = 16;
+    //the most ticks a wave may take before the game is abandoned (10 minutes)
+    private static final int MAX_WAVE_FRAMES = GameSimulation.TICK_RATE*60*10;
+
+    /*
+    wavesFile: the filename of the file that contains wave information
+    level: the level (map) the games are played on
+    layout: the tower purchases made during each game
+    waveCount: the number of waves in the level
+     */
+    private final String wavesFile;
+    private final int level;
+    private final List<Purchase> layout;
+    private final int waveCount;
+
+    /**
+     * @param wavesFile: the filename of the file that contains wave information
+     * @param level: the level (map) the games are played on
+     * @param layout: the tower purchases made during each game
+     */
+    public WaveBalanceRunner(String wavesFile, int level, List<Purchase> layout){
+        this.wavesFile = wavesFile;
+        this.level = level;
+        this.layout = layout;
+        this.waveCount = new GameSimulation(wavesFile, level, 0).getWaveCount();
+    }
+
+    /**
+     * method to play a number of seeded games across all cores
+     * @param games: the number of games to play
+     * @param seed: the seed of the first game, game i uses seed + i
+     * @return the results of the games, merged into one WaveStatistics
+     */
+    public WaveStatistics run(int games, long seed){
+        ForkJoinPool pool = new ForkJoinPool();
+        try{
+            return pool.invoke(new GamesTask(seed, 0, games));
+        }
+        finally{
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * method to play a single seeded game
+     * @param seed: the seed of the game's random number generator
+     * @param statistics: the statistics the results of each wave are recorded in
+     */
+    private void playGame(long seed, WaveStatistics statistics){
+        GameSimulation simulation = new GameSimulation(this.wavesFile, this.level, seed);
+        int nextPurchase = 0;
+
+        //playing each wave of the level until the player runs out of lives
+        for(int wave = 1; wave <= this.waveCount; wave++){
+
+            //making the layout's purchases in order, stopping at the first one that can't be made yet
+            while(nextPurchase < this.layout.size()){
+                Purchase p = this.layout.get(nextPurchase);
+                Tower tower = p.createTower();
+                if(p.wave > wave || simulation.getCash() < tower.getPrice()){
+                    break;
+                }
+                //a purchase whose position isn't valid is skipped
+                if(simulation.canPlaceTower(tower, p.position)){
+                    simulation.placeTower(tower, p.position);
+                }
+                nextPurchase++;
+            }
+
+            int lives = simulation.getLives(), cash = simulation.getCash(), frames = 0;
+            simulation.startWave();
+            while(simulation.isWaveInProgress() && frames < MAX_WAVE_FRAMES){
+                simulation.tick();
+                frames++;
+            }
+
+            //a wave that ended is measured with the lives and cash it ended with, since ending the last wave of the level
+            //loads the next level (which resets the lives and cash), a wave that was abandoned is measured as it is
+            boolean ended = !simulation.isWaveInProgress();
+            int livesAfter = ended ? simulation.getWaveEndLives() : simulation.getLives();
+            int cashAfter = ended ? simulation.getWaveEndCash() : simulation.getCash();
+
+            //when the player runs out of lives the simulation resets, so the cash is not meaningful
+            boolean lost = livesAfter == 0;
+            statistics.record(wave, lives - livesAfter, lost ? 0 : cashAfter - cash, frames, !lost);
+            if(lost || !ended){
+                break;
+            }
+        }
+    }
+
+    /**
+     * RecursiveTask that plays a range of games, splitting the range in two until it is small enough
+     */
+    private class GamesTask extends RecursiveTask<WaveStatistics> {
+        private static final long serialVersionUID = 1L;
+        //seed: the seed of game 0, from, to: the range of games [from, to) played by this task
+        private final long seed;
+        private final int from, to;
+
+        GamesTask(long seed, int from, int to){
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected WaveStatistics compute(){
+            if(this.to - this.from <= GAMES_PER_TASK){
+                WaveStatistics statistics = new WaveStatistics(waveCount);
+                for(int i = this.from; i < this.to; i++){
+                    playGame(this.seed + i, statistics);
+                }
+                return statistics;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            GamesTask left = new GamesTask(this.seed, this.from, middle);
+            left.fork();
+            WaveStatistics right = new GamesTask(this.seed, middle, this.to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * a tower purchase from a layout file
+     */
+    public static class Purchase {
+        //type: the type of tower, position: where it is placed, wave: the earliest wave it is bought before
+        private final String type;
+        private final Point position;
+        private final int wave;
+
+        /**
+         * @param type: the type of tower (tank, supertank, airsupport)
+         * @param position: the position the tower is placed at
+         * @param wave: the earliest wave the tower is bought before
+         */
+        public Purchase(String type, Point position, int wave){
+            this.type = type;
+            this.position = position;
+            this.wave = wave;
+        }
+
+        /**
+         * @return a new tower of this purchase's type
+         */
+        Tower createTower(){
+            return Tower.create(this.type);
+        }
+    }
+
+    /**
+     * the lives lost, cash earned and clear time of each wave across many games
+     */
+    public static class WaveStatistics {
+        //for each wave: the samples recorded so far (livesLost, cashEarned, frames), the number of samples, and the number of games that cleared it
+        private final int[][] livesLost, cashEarned, frames;
+        private final int[] samples, cleared;
+
+        WaveStatistics(int waveCount){
+            this.livesLost = new int[waveCount][16];
+            this.cashEarned = new int[waveCount][16];
+            this.frames = new int[waveCount][16];
+            this.samples = new int[waveCount];
+            this.cleared = new int[waveCount];
+        }
+
+        /**
+         * method to record the result of a wave of a game
+         * @param wave: the wave (starting at 1)
+         * @param livesLost: the lives lost during the wave
+         * @param cashEarned: the cash earned during the wave (including the end of wave bonus)
+         * @param frames: the number of frames the wave took
+         * @param cleared: whether the player survived the wave
+         */
+        void record(int wave, int livesLost, int cashEarned, int frames, boolean cleared){
+            int w = wave - 1, n = this.samples[w];
+            if(n == this.livesLost[w].length){
+                this.livesLost[w] = Arrays.copyOf(this.livesLost[w], n*2);
+                this.cashEarned[w] = Arrays.copyOf(this.cashEarned[w], n*2);
+                this.frames[w] = Arrays.copyOf(this.frames[w], n*2);
+            }
+            this.livesLost[w][n] = livesLost;
+            this.cashEarned[w][n] = cashEarned;
+            this.frames[w][n] = frames;
+            this.samples[w]++;
+            if(cleared){
+                this.cleared[w]++;
+            }
+        }
+
+        /**
+         * method to add the samples of another WaveStatistics to this one
+         * @param other: the statistics to be merged into this one
+         * @return this WaveStatistics
+         */
+        WaveStatistics merge(WaveStatistics other){
+            for(int w = 0; w < this.samples.length; w++){
+                for(int i = 0; i < other.samples[w]; i++){
+                    this.record(w + 1, other.livesLost[w][i], other.cashEarned[w][i], other.frames[w][i], false);
+                }
+                this.cleared[w] += other.cleared[w];
+            }
+            return this;
+        }
+
+        //Getters
+        /**
+         * @param wave: the wave (starting at 1)
+         * @return the lives lost in each game that played the wave
+         */
+        public int[] getLivesLost(int wave){ return Arrays.copyOf(this.livesLost[wave - 1], this.samples[wave - 1]); }
+
+        /**
+         * @param wave: the wave (starting at 1)
+         * @return the cash earned in each game that played the wave
+         */
+        public int[] getCashEarned(int wave){ return Arrays.copyOf(this.cashEarned[wave - 1], this.samples[wave - 1]); }
+
+        /**
+         * @param wave: the wave (starting at 1)
+         * @return the number of games that cleared the wave
+         */
+        public int getCleared(int wave){ return this.cleared[wave - 1]; }
+
+        /**
+         * @return a table with the distribution of each metric for each wave
+         */
+        public String report(){
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%-5s %7s %7s | %-26s | %-26s | %-26s%n", "wave", "played", "cleared",
+                    "lives lost (mean p50 p90 max)", "cash earned (mean p50 p90)", "clear time s (mean p50 p90)"));
+            for(int w = 0; w < this.samples.length; w++){
+                int n = this.samples[w];
+                if(n == 0){
+                    continue;
+                }
+                int[] lives = sorted(this.livesLost[w], n), cash = sorted(this.cashEarned[w], n), time = sorted(this.frames[w], n);
+                sb.append(String.format("%-5d %7d %7d | %6.2f %5d %5d %5d       | %7.1f %6d %6d      | %6.1f %6.1f %6.1f%n",
+                        w + 1, n, this.cleared[w],
+                        mean(lives), percentile(lives, 50), percentile(lives, 90), lives[n - 1],
+                        mean(cash), percentile(cash, 50), percentile(cash, 90),
+                        mean(time)/GameSimulation.TICK_RATE, percentile(time, 50)/(double)GameSimulation.TICK_RATE,
+                        percentile(time, 90)/(double)GameSimulation.TICK_RATE));
+            }
+            return sb.toString();
+        }
+
+        private static int[] sorted(int[] values, int n){
+            int[] copy = Arrays.copyOf(values, n);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        private static double mean(int[] values){
+            long sum = 0;
+            for(int v: values){
+                sum += v;
+            }
+            return (double)sum/values.length;
+        }
+
+        private static int percentile(int[] sortedValues, int percentile){
+            return sortedValues[Math.min(sortedValues.length - 1, sortedValues.length*percentile/100)];
+        }
+    }
+
+    /**
+     * helper method to read a layout file
+     * @param filename: the filename of the layout file, each line is type,x,y[,wave]
+     * @return the purchases in the layout file
+     * @throws IOException if the file can't be read
+     * @throws IllegalArgumentException if a line's type isn't a type of tower the player can buy
+     */
+    public static List<Purchase> readLayout(String filename) throws IOException {
+        List<Purchase> layout = new ArrayList<Purchase>();
+        BufferedReader fileReader = new BufferedReader(new FileReader(filename));
+        try{
+            String currentLine;
+            int lineNumber = 0;
+            while((currentLine = fileReader.readLine()) != null){
+                lineNumber++;
+                if(currentLine.trim().isEmpty()){
+                    continue;
+                }
+                String[] fields = currentLine.trim().split(",");
+                //a misspelt type is reported with its line rather than found when the games are played
+                try{
+                    Tower.typeIndex(fields[0]);
+                }
+                catch(IllegalArgumentException e){
+                    throw new IllegalArgumentException(filename + " line " + lineNumber + ": " + e.getMessage(), e);
+                }
+                layout.add(new Purchase(fields[0],
+                        new Point(Double.parseDouble(fields[1]), Double.parseDouble(fields[2])),
+                        fields.length > 3 ? Integer.parseInt(fields[3]) : 1));
+            }
+        }
+        finally{
+            fileReader.close();
+        }
+        return layout;
+    }
+
+    //main method
+    public static void main(String[] args) throws Exception {
+        if(args.length < 3){
+            System.err.println("usage: WaveBalanceRunner wavesFile level layoutFile [games] [seed]");
+            System.exit(2);
+        }
+        int games = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 0;
+
+        WaveBalanceRunner runner = new WaveBalanceRunner(args[0], Integer.parseInt(args[1]), readLayout(args[2]));
+        long start = System.nanoTime();
+        WaveStatistics statistics = runner.run(games, seed);
+        System.out.print(statistics.report());
+        System.out.printf("%d games on %d threads in %.2f s%n", games, Runtime.getRuntime().availableProcessors(),
+                (System.nanoTime() - start)/1e9);
+    }
+}
@@ -0,0 +1,328 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WaveTable class is the compiled form of a waves file: a binary table of spawn events that is loaded once and read one wave at a time
+ * the text file is compiled once into a .wavebin file next to it (and again only when the text file changes), so loading a level only
+ * reads the table's header and a wave's slicers are created when the wave starts instead of every wave's slicers up front
+ *
+ * the compiled file is big-endian: a header of HEADER_BYTES (MAGIC, VERSION, the tick rate it was compiled for, the length and
+ * modification time of the text file, the number of waves and the offset of the wave index), the spawn events in the order of the
+ * text file (SPAWN_BYTES each) and the wave index (WAVE_BYTES per wave)
+ */
+public class WaveTable {
+
+    //static attributes
+    //the suffix added to a waves file's name to get the name of its compiled table
+    public static final String SUFFIX = ".wavebin";
+    //the first 4 bytes of a compiled table ("SDWV"), a waves text file starts with a digit so it can never start with these bytes
+    private static final int MAGIC = 0x53445756;
+    //the version of the format, a table compiled with a different version is compiled again
+    private static final int VERSION = 1;
+    //the offsets of the header's fields
+    private static final int TICK_RATE_AT = 8, WAVE_COUNT_AT = 28, INDEX_AT = 32;
+    private static final int HEADER_BYTES = 36;
+    //a spawn event: the slicer type's ordinal (1 byte), the number of slicers, the spawn delay of the first slicer (in ticks) and the delay between spawns (in ms)
+    private static final int SPAWN_BYTES = 13;
+    //a wave: the index of its first spawn event and its number of spawn events
+    private static final int WAVE_BYTES = 8;
+    //the largest table read into memory (about 80000 spawn events), a bigger table is memory-mapped instead
+    //(a mapped file stays mapped until the buffer is garbage collected, and on Windows it can't be replaced by a recompile until then)
+    private static final int MAX_READ_BYTES = 1 << 20;
+    //the slicer types indexed by ordinal (values() copies the array on every call)
+    private static final SlicerType[] TYPES = SlicerType.values();
+
+    /*
+    table: the bytes of the compiled file (only read with absolute reads, so the table can be read from any thread)
+    waveCount: the number of waves in the table
+    indexAt: the offset of the wave index in the table
+     */
+    private final ByteBuffer table;
+    private final int waveCount, indexAt;
+
+    /**
+     * @param table: the bytes of a compiled table
+     * @throws IOException if the bytes aren't a table of this version
+     */
+    private WaveTable(ByteBuffer table) throws IOException {
+        if(table.limit() < HEADER_BYTES || table.getInt(0) != MAGIC || table.getInt(4) != VERSION
+                || table.getInt(TICK_RATE_AT) != GameSimulation.TICK_RATE){
+            throw new IOException("not a compiled waves file of version " + VERSION + " for a tick rate of " + GameSimulation.TICK_RATE);
+        }
+        this.table = table;
+        this.waveCount = table.getInt(WAVE_COUNT_AT);
+        this.indexAt = table.getInt(INDEX_AT);
+    }
+
+    /**
+     * method to open the compiled table of a waves file, compiling it first if it is missing or older than the text file
+     * @param filename: the filename of a waves text file (or of a table that was already compiled)
+     * @return the table of the file's waves
+     * @throws IllegalArgumentException if the file doesn't exist or isn't a valid waves file
+     */
+    public static WaveTable open(String filename){
+        File source = new File(filename);
+        try{
+            if(hasHeader(source, null)){
+                return new WaveTable(load(source));
+            }
+
+            File compiled = new File(filename + SUFFIX);
+            if(!hasHeader(compiled, source)){
+                //if the text file's folder can't be written to (e.g. a read-only install) the table is compiled for this run only
+                if(!compiled.getAbsoluteFile().getParentFile().canWrite()){
+                    compiled = File.createTempFile("waves", SUFFIX);
+                    compiled.deleteOnExit();
+                }
+                compile(source, compiled);
+            }
+            return new WaveTable(load(compiled));
+        }
+        catch(IOException e){
+            throw new IllegalArgumentException("could not load the waves file " + filename, e);
+        }
+    }
+
+    /**
+     * method to compile a waves text file into a table
+     * the file is read one line at a time into the table's bytes (SPAWN_BYTES per spawn event), which then replace the target in one step (see AtomicFile)
+     * @param source: the waves text file, each line is "wave,spawn,number,type,delay between spawns in ms" or "wave,delay,ms"
+     * @param target: the file the table is written to (replaced once the whole table is written)
+     * @throws IOException if the text file can't be read or the table can't be written
+     * @throws IllegalArgumentException if a line of the text file isn't a valid event or the waves aren't in order
+     */
+    public static void compile(File source, File target) throws IOException {
+        //the length and modification time are read first so a text file that changes while it is compiled gets compiled again
+        long sourceLength = source.length(), sourceModified = source.lastModified();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BufferedReader reader = new BufferedReader(new FileReader(source));
+        DataOutputStream out = new DataOutputStream(bytes);
+        //firstEvents[i] is the index of the first spawn event of wave i+1, the number of waves is only known once the whole file is read
+        int[] firstEvents = new int[16];
+        int waveCount = 0, events = 0;
+        try{
+            //the header is written with a wave count and index offset of 0 and filled in once they are known
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(GameSimulation.TICK_RATE);
+            out.writeLong(sourceLength);
+            out.writeLong(sourceModified);
+            out.writeInt(0);
+            out.writeInt(0);
+
+            //a variable that tracks the delay in FRAMES from delay events
+            int delay = 0;
+            String line;
+            for(int lineNumber = 1; (line = reader.readLine()) != null; lineNumber++){
+                if(line.isEmpty()){
+                    continue;
+                }
+                //each line is delimited using commas, the fields are read in place instead of splitting the line into new strings
+                int waveEnd = next(line, 0);
+                int wave = parseInt(line, 0, waveEnd);
+                int first = waveEnd + 1, end = next(line, first);
+
+                if(end - first == 5 && line.regionMatches(first, "spawn", 0, 5)){
+                    //a spawn event for the next wave starts that wave and resets the delay (the waves must be in order)
+                    if(wave == waveCount + 1){
+                        if(waveCount == firstEvents.length){
+                            int[] grown = new int[2*firstEvents.length];
+                            System.arraycopy(firstEvents, 0, grown, 0, waveCount);
+                            firstEvents = grown;
+                        }
+                        firstEvents[waveCount++] = events;
+                        delay = 0;
+                    }
+                    else if(wave != waveCount){
+                        throw new IllegalArgumentException(source + " line " + lineNumber + ": a spawn event for wave " + wave
+                                + " can't follow wave " + waveCount + " (the waves must be in order)");
+                    }
+
+                    first = end + 1;
+                    end = next(line, first);
+                    int numSlicers = parseInt(line, first, end);
+                    first = end + 1;
+                    end = next(line, first);
+                    SlicerType type = parseType(line, first, end);
+                    first = end + 1;
+                    end = next(line, first);
+                    //spawnDelayMS is the spawnDelay in milliseconds, it is converted to frames when the wave is loaded
+                    int spawnDelayMS = parseInt(line, first, end);
+
+                    out.writeByte(type.ordinal());
+                    out.writeInt(numSlicers);
+                    out.writeInt(delay);
+                    out.writeInt(spawnDelayMS);
+                    events++;
+
+                    //incrementing the delay value (in frames) by the time the last slicer of the event spawns after the first
+                    delay += GameSimulation.TICK_RATE*(numSlicers - 1)*spawnDelayMS/1000;
+                }
+                else if(end - first == 5 && line.regionMatches(first, "delay", 0, 5)){
+                    //a delay event belongs to the wave being read (a wave starts with a spawn event, which would reset the delay)
+                    if(wave != waveCount){
+                        throw new IllegalArgumentException(source + " line " + lineNumber + ": a delay event for wave " + wave
+                                + " can't follow wave " + waveCount + " (a wave starts with a spawn event and the waves must be in order)");
+                    }
+                    first = end + 1;
+                    delay += GameSimulation.TICK_RATE*parseInt(line, first, next(line, first))/1000;
+                }
+            }
+
+            //the wave index follows the spawn events, the last wave's events end where the index starts
+            for(int i = 0; i < waveCount; i++){
+                out.writeInt(firstEvents[i]);
+                out.writeInt((i + 1 < waveCount ? firstEvents[i + 1] : events) - firstEvents[i]);
+            }
+        }
+        finally{
+            reader.close();
+            out.close();
+        }
+
+        //the wave count and the offset of the wave index are only known now
+        ByteBuffer table = ByteBuffer.wrap(bytes.toByteArray());
+        table.putInt(WAVE_COUNT_AT, waveCount).putInt(INDEX_AT, HEADER_BYTES + events*SPAWN_BYTES);
+        AtomicFile.write(target, table);
+    }
+
+    /**
+     * method to create the slicers of one wave
+     * @param wave: the wave (starting at 1)
+     * @return the slicers of the wave in the order they appear in the waves file
+     * @throws IndexOutOfBoundsException if the table has no such wave
+     */
+    public List<Slicer> loadWave(int wave){
+        if(wave < 1 || wave > this.waveCount){
+            throw new IndexOutOfBoundsException("wave " + wave + " of " + this.waveCount);
+        }
+        int first = this.table.getInt(this.indexAt + (wave - 1)*WAVE_BYTES);
+        int last = first + this.table.getInt(this.indexAt + (wave - 1)*WAVE_BYTES + 4);
+
+        //counting the wave's slicers so the list is only allocated once
+        int size = 0;
+        for(int event = first; event < last; event++){
+            size += Math.max(0, this.table.getInt(HEADER_BYTES + event*SPAWN_BYTES + 1));
+        }
+        List<Slicer> slicers = new ArrayList<Slicer>(size);
+
+        for(int event = first; event < last; event++){
+            int at = HEADER_BYTES + event*SPAWN_BYTES;
+            SlicerType type = TYPES[this.table.get(at)];
+            int numSlicers = this.table.getInt(at + 1), delay = this.table.getInt(at + 5), spawnDelayMS = this.table.getInt(at + 9);
+            for(int i = 0; i < numSlicers; i++){
+                //the spawnDelayF param of the slicer uses the TICK_RATE to convert the spawnDelayMS into ticks
+                slicers.add(new Slicer(type, wave, delay + GameSimulation.TICK_RATE*i*spawnDelayMS/1000));
+            }
+        }
+        return slicers;
+    }
+
+    /**
+     * helper method to check whether a file is a compiled table of this version
+     * @param file: the file to check
+     * @param source: the waves text file the table must have been compiled from (null to accept a table of any text file)
+     * @return true if the file is a table of this version for the current tick rate (compiled from the source as it is now)
+     */
+    private static boolean hasHeader(File file, File source) throws IOException {
+        if(!file.isFile() || file.length() < HEADER_BYTES){
+            return false;
+        }
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), HEADER_BYTES));
+        try{
+            return in.readInt() == MAGIC && in.readInt() == VERSION && in.readInt() == GameSimulation.TICK_RATE
+                    && (source == null || (in.readLong() == source.length() && in.readLong() == source.lastModified()));
+        }
+        finally{
+            in.close();
+        }
+    }
+
+    /**
+     * helper method to get the bytes of a table, read into memory or (for a table bigger than MAX_READ_BYTES) mapped read-only
+     * (the mapping stays valid after the channel is closed)
+     */
+    private static ByteBuffer load(File file) throws IOException {
+        FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+        try{
+            if(channel.size() > MAX_READ_BYTES){
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            ByteBuffer table = ByteBuffer.allocate((int)channel.size());
+            while(table.hasRemaining()){
+                if(channel.read(table) == -1){
+                    throw new IOException(file + " was cut short while it was read");
+                }
+            }
+            table.flip();
+            return table;
+        }
+        finally{
+            channel.close();
+        }
+    }
+
+    /**
+     * helper method to find the end of the field starting at from (the next comma or the end of the line)
+     */
+    private static int next(String line, int from){
+        int comma = line.indexOf(',', from);
+        return comma == -1 ? line.length() : comma;
+    }
+
+    /**
+     * helper method to parse the decimal integer in line[from, to) without creating a substring
+     * @throws NumberFormatException if the field isn't an integer
+     */
+    private static int parseInt(String line, int from, int to){
+        boolean negative = from < to && line.charAt(from) == '-';
+        int i = negative || (from < to && line.charAt(from) == '+') ? from + 1 : from;
+        if(i >= to || to > line.length()){
+            throw new NumberFormatException("no integer in \"" + line + "\"");
+        }
+        long value = 0;
+        for(; i < to; i++){
+            int digit = Character.digit(line.charAt(i), 10);
+            value = 10*value + digit;
+            if(digit < 0 || value > Integer.MAX_VALUE + 1L){
+                throw new NumberFormatException("\"" + line.substring(from, to) + "\" in \"" + line + "\" is not an integer");
+            }
+        }
+        if(!negative && value > Integer.MAX_VALUE){
+            throw new NumberFormatException("\"" + line.substring(from, to) + "\" in \"" + line + "\" is not an integer");
+        }
+        return (int)(negative ? -value : value);
+    }
+
+    /**
+     * helper method to find the slicer type named by line[from, to) (ignoring case like SlicerType.fromName)
+     * @throws IllegalArgumentException if no type has that name
+     */
+    private static SlicerType parseType(String line, int from, int to){
+        for(SlicerType type: TYPES){
+            String name = type.getImageName();
+            if(name.length() == to - from && line.regionMatches(true, from, name, 0, name.length())){
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("no slicer type named \"" + line.substring(from, Math.min(to, line.length())) + "\" in \"" + line + "\"");
+    }
+
+    //Getters
+
+    /**
+     * @return the number of waves in the table
+     */
+    public int getWaveCount() { return waveCount; }
+
+    //main method, compiles a waves file ahead of time: java WaveTable waves.txt [table]
+    public static void main(String[] args) throws IOException {
+        File source = new File(args[0]);
+        File target = new File(args.length > 1 ? args[1] : args[0] + SUFFIX);
+        compile(source, target);
+        System.out.printf("compiled %s into %s (%d waves, %d bytes)%n", source, target, open(target.getPath()).getWaveCount(), target.length());
+    }
+}